@@ -0,0 +1,83 @@
+package tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.GameBoard;
+import tetris.Piece;
+import tetris.Tetromino;
+
+// GameBoard.clearLines / placeBlock
+// 盤面を書き換える計測は毎回テンプレートから写すので、copy() を基準値として引いて読む
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"EMPTY", "HALF", "NEAR_TOP"})
+    Boards.Fill fill;
+
+    GameBoard template;
+    GameBoard tetrisTemplate;
+    GameBoard work = new GameBoard();
+
+    int dropY;
+    int[][] shape;
+
+    @Setup
+    public void setup() {
+        template = Boards.filled(fill.rows, 0, 1L);
+        tetrisTemplate = Boards.filled(Math.max(0, fill.rows - 4), 4, 1L);
+
+        Piece t = new Piece(2, 3, 0);
+        dropY = t.getGhostY(template);
+        shape = Tetromino.SHAPES[2];
+    }
+
+    @Benchmark
+    public GameBoard copy() {
+        work.copyFrom(template);
+        return work;
+    }
+
+    // 揃った行がない（毎回の固定で一番多いケース）
+    @Benchmark
+    public int clearLinesNone() {
+        return template.clearLines();
+    }
+
+    // 下 4 行が揃っている
+    @Benchmark
+    public int clearLinesTetris() {
+        work.copyFrom(tetrisTemplate);
+        return work.clearLines();
+    }
+
+    @Benchmark
+    public GameBoard placeBlock() {
+        work.copyFrom(template);
+        work.placeBlock(3, dropY, shape, Tetromino.COLORS[2]);
+        return work;
+    }
+
+    @Benchmark
+    public GameBoard placePiece() {
+        work.copyFrom(template);
+        work.placePiece(2, 0, 3, dropY);
+        return work;
+    }
+}
@@ -0,0 +1,50 @@
+package tetris.bench;
+
+import java.util.Random;
+
+import tetris.GameBoard;
+import tetris.Tetromino;
+
+// ベンチマーク用の盤面を作る（埋まり具合ごと、シード固定）
+public final class Boards {
+
+    // 盤面の埋まり具合（下から何行ぶんにブロックがあるか）
+    public enum Fill {
+        EMPTY(0),
+        HALF(GameBoard.ROWS / 2),
+        NEAR_TOP(GameBoard.ROWS - 3);
+
+        final int rows;
+
+        Fill(int rows) {
+            this.rows = rows;
+        }
+    }
+
+    private static final int[][] CELL = {{1}};
+
+    private Boards() {}
+
+    // 下から fullRows 行は全部埋め、その上の junkRows 行は各行 1 マス以上空ける
+    static GameBoard filled(int junkRows, int fullRows, long seed) {
+        Random rand = new Random(seed);
+        GameBoard board = new GameBoard();
+        int y = GameBoard.ROWS - 1;
+        for (int i = 0; i < fullRows; i++, y--) {
+            for (int x = 0; x < GameBoard.COLS; x++) {
+                set(board, x, y, rand);
+            }
+        }
+        for (int i = 0; i < junkRows && y >= 0; i++, y--) {
+            int hole = rand.nextInt(GameBoard.COLS);
+            for (int x = 0; x < GameBoard.COLS; x++) {
+                if (x != hole && rand.nextInt(4) != 0) set(board, x, y, rand);
+            }
+        }
+        return board;
+    }
+
+    private static void set(GameBoard board, int x, int y, Random rand) {
+        board.placeBlock(x, y, CELL, Tetromino.COLORS[rand.nextInt(Tetromino.COUNT)]);
+    }
+}
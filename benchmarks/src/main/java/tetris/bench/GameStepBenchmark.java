@@ -0,0 +1,60 @@
+package tetris.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.GameEngine;
+import tetris.ManualClock;
+
+// GameEngine の 1 ステップ（入力 1 つ + tick）を回し続ける
+// ゲームが終わったらその場でリセットして続ける
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStepBenchmark {
+
+    ManualClock clock;
+    GameEngine engine;
+    Random input;
+
+    @Setup
+    public void setup() {
+        clock = new ManualClock();
+        engine = new GameEngine(clock, 1L);
+        input = new Random(2L);
+        engine.reset();
+        engine.begin();
+    }
+
+    @Benchmark
+    public int step() {
+        if (!engine.isRunning()) {
+            engine.reset();
+            engine.begin();
+        }
+        switch (input.nextInt(8)) {
+            case 0: engine.moveLeft(); break;
+            case 1: engine.moveRight(); break;
+            case 2: engine.rotate(); break;
+            case 3: engine.hardDrop(); break;
+            default: break;
+        }
+        clock.advance(engine.gravityDelay());
+        engine.tick();
+        return engine.getScore();
+    }
+}
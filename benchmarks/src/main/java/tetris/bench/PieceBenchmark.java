@@ -0,0 +1,90 @@
+package tetris.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.GameBoard;
+import tetris.Piece;
+import tetris.Tetromino;
+
+// Piece.canMove / getGhostY / rotateWithKick（出現位置の T ミノ）と GameBoard.dropDistance
+// getGhostY は盤面の版・向き・x が同じなら前の結果を返すので、落下距離の計算そのものは dropDistance で測る
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+    @Param({"EMPTY", "HALF", "NEAR_TOP"})
+    Boards.Fill fill;
+
+    GameBoard board;
+    Piece piece;
+
+    // dropDistance で順に回す（種類, 向き, x）の組（全部の置き方）
+    int[] drops;
+    int next;
+
+    @Setup
+    public void setup() {
+        board = Boards.filled(fill.rows, 0, 1L);
+        piece = new Piece(2, 3, 0);
+
+        int n = 0;
+        drops = new int[Tetromino.COUNT * Tetromino.ROTATIONS * board.getCols() * 3];
+        for (int type = 0; type < Tetromino.COUNT; type++) {
+            for (int rot = 0; rot < Tetromino.ROTATIONS; rot++) {
+                for (int x = 0; x + Tetromino.width(type, rot) <= board.getCols(); x++) {
+                    drops[n++] = type;
+                    drops[n++] = rot;
+                    drops[n++] = x;
+                }
+            }
+        }
+        drops = Arrays.copyOf(drops, n);
+        next = 0;
+    }
+
+    @Benchmark
+    public boolean canMove() {
+        return piece.canMove(board, 3, 1);
+    }
+
+    // 呼ぶたびに別の置き方の落下距離を求める（キャッシュを通らない）
+    @Benchmark
+    public int dropDistance() {
+        int i = next;
+        next = i + 3 == drops.length ? 0 : i + 3;
+        return board.dropDistance(drops[i], drops[i + 1], drops[i + 2], 0);
+    }
+
+    // 盤面もミノも変わらないので 2 回目からはキャッシュを返すだけ
+    @Benchmark
+    public int getGhostYCached() {
+        return piece.getGhostY(board);
+    }
+
+    // 4 回まわして元の向きに戻す
+    @Benchmark
+    public int rotateWithKick() {
+        piece.rotateWithKick(board, true);
+        piece.rotateWithKick(board, true);
+        piece.rotateWithKick(board, true);
+        piece.rotateWithKick(board, true);
+        return piece.getRotation();
+    }
+}
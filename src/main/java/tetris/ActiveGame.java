@@ -0,0 +1,369 @@
+package tetris;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Toolkit;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.JFrame;
+
+// アクティブ描画モード（java tetris.Main --active）
+// 専用スレッドが Canvas の BufferStrategy に直接描く。シミュレーションは GameEngine.TICK_MS の
+// 固定ステップで進め（時計もステップごとに進めるので落下・ロック遅延はステップ数で決まる）、
+// 描画は画面のリフレッシュごとに前後のステップの間を補間する
+// Swing のタイマーも EDT も通らないので、EDT の混み具合で落下がぶれない
+public class ActiveGame extends Canvas implements Runnable, KeyListener, GameEngine.Listener {
+
+    private static final long STEP_NS = GameEngine.TICK_MS * 1_000_000L;
+    // 処理が止まったときに追いつこうとしてステップを回しすぎないための上限
+    private static final long MAX_CATCH_UP_NS = 250_000_000L;
+    private static final int MESSAGE_STEPS = 500 / GameEngine.TICK_MS;
+
+    private static final int READY = 0;
+    private static final int GO = 1;
+    private static final int PLAYING = 2;
+    private static final int ENDED = 3;
+
+    private final ManualClock clock = new ManualClock();
+    private final GameEngine engine = new GameEngine(clock, PieceGenerator.create(TetrisPanel.GENERATOR, 0L, GameEngine.PREVIEW_DEPTH));
+    private final BoardRenderer renderer = new BoardRenderer(engine.getBoard());
+    private final SoundBank sounds = new SoundBank();
+    private final FrameStats frames = new FrameStats("active");
+
+    // 移動・回転は InputController へ、それ以外のキーはこのキューへ EDT から積み、ループスレッドで取り出す
+    private final InputController input = new InputController();
+    private final AudioMixer.EventQueue keys = new AudioMixer.EventQueue(64);
+
+    private volatile boolean alive = true;
+    private Thread thread;
+    // 続きから始めるセーブ（ループスレッドが始まるときに 1 回だけ使う）
+    private SaveGame pending;
+
+    // 以下はループスレッドだけが触る
+    private int phase = READY;
+    private int phaseSteps;
+    private boolean newRecord;
+    private long seed;
+    private ReplayWriter recorder;
+    // 補間用：直前のステップでのミノと高さ
+    private Piece prevPiece;
+    private int prevY;
+
+    public ActiveGame() {
+        setPreferredSize(renderer.preferredSize());
+        setBackground(Color.BLACK);
+        setIgnoreRepaint(true);
+        setFocusable(true);
+        addKeyListener(this);
+        engine.setListener(this);
+    }
+
+    // resume があればその続きから始める（null なら最初から）
+    public static void open(SaveGame resume) {
+        JFrame frame = new JFrame("Tetris");
+        ActiveGame game = new ActiveGame();
+        game.pending = resume;
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setIgnoreRepaint(true);
+        frame.add(game);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setResizable(false);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                game.stop();
+            }
+        });
+        frame.setVisible(true);
+        game.start();
+    }
+
+    void start() {
+        createBufferStrategy(2);
+        requestFocusInWindow();
+        thread = new Thread(this, "active-render");
+        thread.start();
+    }
+
+    void stop() {
+        alive = false;
+        try {
+            if (thread != null) thread.join(1000L);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        finishRecording();
+        // ループスレッドが止まってから書く（止まらなかったときは書きかけの状態を残さない）
+        if (thread == null || !thread.isAlive()) {
+            SaveGame.saveOrDiscard(engine, TetrisPanel.GENERATOR, seed);
+        }
+        FrameStats.report(frames);
+        sounds.close();
+    }
+
+    @Override
+    public void run() {
+        long frameNs = 1_000_000_000L / refreshRate();
+        if (pending != null) {
+            resume(pending);
+            pending = null;
+        } else {
+            restart();
+        }
+
+        long prev = System.nanoTime();
+        long acc = 0L;
+        long nextFrame = prev;
+        while (alive) {
+            long now = System.nanoTime();
+            acc = Math.min(acc + (now - prev), MAX_CATCH_UP_NS);
+            prev = now;
+
+            handleKeys();
+            while (acc >= STEP_NS) {
+                update();
+                acc -= STEP_NS;
+            }
+
+            render((double) acc / STEP_NS);
+            long shown = System.nanoTime();
+            frames.frame(shown);
+            if (phase == PLAYING) input.displayed(shown);
+
+            // 次のリフレッシュまで待つ（遅れていたら待たずに次へ）
+            nextFrame += frameNs;
+            long wait = nextFrame - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                nextFrame = System.nanoTime();
+            }
+        }
+    }
+
+    private static int refreshRate() {
+        GraphicsDevice device = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+        int hz = device.getDisplayMode().getRefreshRate();
+        return hz == DisplayMode.REFRESH_RATE_UNKNOWN ? 60 : hz;
+    }
+
+    private void restart() {
+        sounds.stopBgm();
+        finishRecording();
+        seed = System.nanoTime();
+        engine.reseed(seed);
+        engine.reset();
+        input.clear();
+        newRecord = false;
+        phase = READY;
+        phaseSteps = 0;
+        prevPiece = null;
+    }
+
+    // セーブした時点からそのまま再開する（Ready/Go は出さない。リプレイは TetrisPanel と同じく記録しない）
+    private void resume(SaveGame save) {
+        try {
+            save.apply(engine);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("セーブから再開できませんでした: " + ex.getMessage());
+            restart();
+            return;
+        }
+        seed = save.seed;
+        input.clear();
+        newRecord = false;
+        phase = PLAYING;
+        phaseSteps = 0;
+        prevPiece = null;
+        if (engine.isRunning() && !engine.isPaused()) sounds.startBgm();
+    }
+
+    // 固定ステップ 1 回
+    private void update() {
+        Piece piece = engine.getCurrentPiece();
+        prevPiece = piece;
+        prevY = piece == null ? 0 : piece.y;
+
+        switch (phase) {
+            case READY:
+            case GO:
+                if (++phaseSteps >= MESSAGE_STEPS) {
+                    phaseSteps = 0;
+                    if (phase == READY) {
+                        phase = GO;
+                    } else {
+                        phase = PLAYING;
+                        engine.begin();
+                        recorder = ReplayWriter.start(TetrisPanel.GENERATOR, seed, engine.getMode(), engine.getBoard(), input.dasMs(), input.arrMs());
+                        input.setRecorder(recorder);
+                        sounds.startBgm();
+                    }
+                }
+                break;
+            case PLAYING:
+                input.update(engine);
+                engine.step();
+                break;
+            default:
+                break;
+        }
+        clock.advance(GameEngine.TICK_MS);
+
+        if (recorder != null) {
+            recorder.nextStep();
+            if (!engine.isRunning()) finishRecording();
+        }
+    }
+
+    private void finishRecording() {
+        if (recorder == null) return;
+        recorder.finish(engine);
+        input.setRecorder(null);
+        recorder = null;
+    }
+
+    private void handleKeys() {
+        int key;
+        while ((key = keys.poll()) != AudioMixer.EventQueue.EMPTY) {
+            if (key == KeyEvent.VK_R || (phase == ENDED && key == KeyEvent.VK_S)) {
+                sounds.play(SoundBank.Sound.START);
+                restart();
+                continue;
+            }
+            if (phase != PLAYING) continue;
+
+            if (key == KeyEvent.VK_H) {
+                if (recorder != null) recorder.record(Replay.PAUSE);
+                if (engine.togglePause()) {
+                    sounds.stopBgm();
+                    frames.skip();
+                } else {
+                    sounds.startBgm();
+                }
+            }
+        }
+    }
+
+    // alpha は最後のステップから次のステップまでの進み具合（0～1）
+    private void render(double alpha) {
+        BufferStrategy strategy = getBufferStrategy();
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    draw(g, alpha);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void draw(Graphics2D g, double alpha) {
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, getWidth(), getHeight());
+
+        if (phase == READY) {
+            renderer.drawCenteredText(g, "Ready?", Color.WHITE);
+            return;
+        }
+        if (phase == GO) {
+            renderer.drawCenteredText(g, "Go!!", Color.WHITE);
+            return;
+        }
+
+        GameBoard board = engine.getBoard();
+        Piece piece = engine.getCurrentPiece();
+        renderer.drawBoard(g, board);
+
+        if (engine.isRunning() && !engine.isPaused() && piece != null) {
+            int ghostY = piece.getGhostY(board);
+            if (ghostY != piece.y) {
+                renderer.drawPiece(g, piece, ghostY, true);
+            }
+        }
+        if (!engine.isGameOver() && piece != null) {
+            // 直前のステップで 1 段落ちたところなら、その間を補間して滑らかに描く
+            int offset = 0;
+            if (piece == prevPiece && piece.y == prevY + 1 && engine.isRunning() && !engine.isPaused()) {
+                offset = (int) Math.round((alpha - 1.0) * renderer.block);
+            }
+            renderer.drawPiece(g, piece, piece.y, offset, false);
+        }
+
+        renderer.drawHud(g, engine, engine.isFinished() && newRecord, false);
+
+        if (engine.isGameOver()) {
+            renderer.drawCenteredText(g, "GAME OVER", Color.RED);
+        }
+        if (engine.isFinished()) {
+            renderer.drawCenteredText(g, "Finish", Color.WHITE);
+        }
+        if (engine.isPaused()) {
+            renderer.drawCenteredText(g, "HOLD", Color.WHITE);
+        }
+    }
+
+    @Override
+    public void linesCleared(int cleared) {
+        sounds.play(cleared >= 4 ? SoundBank.Sound.TETRIS : SoundBank.Sound.LINE_CLEAR);
+    }
+
+    // スコアを記録する（TetrisPanel と同じく書き込みは ScoreManager が裏で行う）
+    private void recordScore() {
+        int best = ScoreManager.getBestScore(engine.getMode());
+        ScoreManager.addScore(ScoreRecord.of(engine, ScoreRecord.defaultPlayer(), System.currentTimeMillis()));
+        newRecord = engine.getScore() > best;
+    }
+
+    @Override
+    public void gameOver() {
+        sounds.stopBgm();
+        // 時間制限のないモードは積み上がったところで記録する（TetrisPanel と同じ）
+        if (!engine.getMode().isTimed()) recordScore();
+        sounds.play(SoundBank.Sound.GAME_OVER);
+        phase = ENDED;
+        FrameStats.report(frames, input.latency());
+    }
+
+    @Override
+    public void finished() {
+        sounds.stopBgm();
+        recordScore();
+        sounds.play(SoundBank.Sound.FINISH);
+        phase = ENDED;
+        FrameStats.report(frames, input.latency());
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        int action = InputController.actionOf(e.getKeyCode());
+        if (action >= 0) {
+            input.press(action, System.nanoTime());
+        } else {
+            keys.offer(e.getKeyCode());
+        }
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        int action = InputController.actionOf(e.getKeyCode());
+        if (action >= 0) {
+            input.release(action, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {}
+}
@@ -0,0 +1,226 @@
+package tetris;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+// 音を鳴らす専用スレッド
+// SourceDataLine を 1 本だけ持ち、BGM（BgmStream から少しずつ）と効果音をソフトウェアで足し合わせて書き込む
+// ほかのスレッドからはロックフリーのキューに命令を積むだけ
+final class AudioMixer implements Runnable {
+
+    // ミキサーの出力形式（音源はすべて読み込み時にこれへ変換しておく）
+    static final float SAMPLE_RATE = 44100f;
+    static final int CHANNELS = 2;
+    static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+
+    static final int PLAY = 1;
+    static final int BGM_START = 2;
+    static final int BGM_STOP = 3;
+    static final int SHUTDOWN = 4;
+
+    // 1 回に混ぜるフレーム数（約 12ms）、ラインのバッファはその 4 倍
+    private static final int CHUNK_FRAMES = 512;
+    private static final int MAX_VOICES = 16;
+
+    private final Supplier<short[][]> loader;
+    private final String bgmPath;
+    private final EventQueue events = new EventQueue(256);
+    private final Thread thread;
+    private volatile boolean alive = true;
+
+    // 以下はミキサースレッドだけが触る
+    private short[][] sounds;
+    private final int[] voiceSound = new int[MAX_VOICES];
+    private final int[] voicePos = new int[MAX_VOICES];
+    private int voiceCount;
+    private BgmStream bgm;
+    private final int[] mix = new int[CHUNK_FRAMES * CHANNELS];
+    private final byte[] out = new byte[CHUNK_FRAMES * CHANNELS * 2];
+
+    // loader はミキサースレッドの最初に呼ばれる（デコードで呼び出し元を待たせない）
+    AudioMixer(Supplier<short[][]> loader, String bgmPath) {
+        this.loader = loader;
+        this.bgmPath = bgmPath;
+        this.thread = new Thread(this, "audio-mixer");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // 命令を積むだけで戻る（キューがいっぱい・停止済みなら捨てる）
+    boolean post(int op, int arg) {
+        if (!alive) return false;
+        return events.offer(op << 16 | arg);
+    }
+
+    void shutdown() {
+        if (alive) post(SHUTDOWN, 0);
+    }
+
+    @Override
+    public void run() {
+        sounds = loader.get();
+
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, out.length * 4);
+        } catch (LineUnavailableException | IllegalArgumentException ex) {
+            ex.printStackTrace();
+            alive = false;
+            return;
+        }
+        line.start();
+
+        try {
+            while (alive) {
+                drainEvents();
+                if (!alive) break;
+                mixChunk();
+                // ラインのバッファが空くまでここで待つので、このループが再生の速さになる
+                line.write(out, 0, out.length);
+            }
+        } finally {
+            stopBgm();
+            line.stop();
+            line.close();
+        }
+    }
+
+    private void drainEvents() {
+        int e;
+        while ((e = events.poll()) != EventQueue.EMPTY) {
+            int op = e >>> 16;
+            int arg = e & 0xFFFF;
+            switch (op) {
+                case PLAY:
+                    addVoice(arg);
+                    break;
+                case BGM_START:
+                    // 鳴っている間はそのまま（頭から鳴らし直さない）
+                    if (bgm == null) bgm = BgmStream.open(bgmPath);
+                    break;
+                case BGM_STOP:
+                    stopBgm();
+                    break;
+                case SHUTDOWN:
+                    alive = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void stopBgm() {
+        if (bgm != null) {
+            bgm.close();
+            bgm = null;
+        }
+    }
+
+    // 空きがなければ一番進んでいる（もうすぐ終わる）効果音を置き換える
+    private void addVoice(int sound) {
+        if (sounds[sound] == null) return;
+        int slot = voiceCount;
+        if (slot == MAX_VOICES) {
+            slot = 0;
+            for (int i = 1; i < MAX_VOICES; i++) {
+                if (voicePos[i] > voicePos[slot]) slot = i;
+            }
+        } else {
+            voiceCount++;
+        }
+        voiceSound[slot] = sound;
+        voicePos[slot] = 0;
+    }
+
+    private void mixChunk() {
+        Arrays.fill(mix, 0);
+
+        if (bgm != null) {
+            bgm.mixInto(mix, mix.length);
+        }
+
+        for (int v = 0; v < voiceCount; ) {
+            short[] pcm = sounds[voiceSound[v]];
+            int pos = voicePos[v];
+            int len = Math.min(mix.length, pcm.length - pos);
+            for (int i = 0; i < len; i++) {
+                mix[i] += pcm[pos + i];
+            }
+            pos += len;
+            if (pos >= pcm.length) {
+                // 鳴り終わったら最後のスロットで詰める
+                voiceCount--;
+                voiceSound[v] = voiceSound[voiceCount];
+                voicePos[v] = voicePos[voiceCount];
+            } else {
+                voicePos[v] = pos;
+                v++;
+            }
+        }
+
+        for (int i = 0, b = 0; i < mix.length; i++, b += 2) {
+            int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[b] = (byte) s;
+            out[b + 1] = (byte) (s >> 8);
+        }
+    }
+
+    // 固定長のロックフリーキュー（どのスレッドからでも積めて、取り出すのはミキサースレッドだけ）
+    // 各スロットの番号で書き込み済みかどうかを判定する
+    static final class EventQueue {
+        static final int EMPTY = -1;
+
+        private final int[] buffer;
+        private final AtomicLongArray sequence;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private long head;
+
+        EventQueue(int capacity) {
+            if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("容量は 2 のべき乗にしてください: " + capacity);
+            buffer = new int[capacity];
+            sequence = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                sequence.set(i, i);
+            }
+        }
+
+        boolean offer(int value) {
+            for (;;) {
+                long pos = tail.get();
+                int idx = (int) pos & mask;
+                long dif = sequence.get(idx) - pos;
+                if (dif == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        buffer[idx] = value;
+                        sequence.set(idx, pos + 1);
+                        return true;
+                    }
+                } else if (dif < 0) {
+                    return false;
+                }
+            }
+        }
+
+        int poll() {
+            int idx = (int) head & mask;
+            if (sequence.get(idx) != head + 1) return EMPTY;
+            int value = buffer[idx];
+            sequence.set(idx, head + mask + 1);
+            head++;
+            return value;
+        }
+    }
+}
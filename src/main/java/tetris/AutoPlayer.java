@@ -0,0 +1,316 @@
+package tetris;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// 置き場所を全部試して盤面を評価する自動プレイヤー
+// 今のミノは MoveGenerator で届く置き場所をすべて（潜り込ませる置き方も）並べ、
+// 先読み分の NEXT は上から落とす (向き, x) を並べて、置いた後の盤面の点数が最大の手を選ぶ
+public class AutoPlayer {
+
+    // 評価の重み（高さ・穴・でこぼこは減点、消えた行は加点）
+    public static final class Weights {
+        final double height;
+        final double lines;
+        final double holes;
+        final double bumpiness;
+
+        public Weights(double height, double lines, double holes, double bumpiness) {
+            this.height = height;
+            this.lines = lines;
+            this.holes = holes;
+            this.bumpiness = bumpiness;
+        }
+
+        public static Weights defaults() {
+            return new Weights(-0.510066, 0.760666, -0.35663, -0.184483);
+        }
+    }
+
+    // 置き場所は int 1 つに詰める（向き << 16 | x、x は盤面の幅の上限まで入る）
+    static int encode(int rotation, int x) {
+        return rotation << 16 | x;
+    }
+
+    static int rotationOf(int move) {
+        return move >>> 16;
+    }
+
+    static int xOf(int move) {
+        return move & 0xFFFF;
+    }
+
+    // 置き場所の数の上限（向き × 列）
+    static int maxMoves(GameBoard board) {
+        return Tetromino.ROTATIONS * board.getCols();
+    }
+
+    private final Weights weights;
+    private final int lookahead;
+    private final ForkJoinPool pool;
+
+    // 先読みの途中の盤面の評価値（同じ盤面に別の順で置いて来たら読み直さない、null なら覚えない）
+    private final TranspositionTable table;
+
+    // 作業用の盤面はスレッドごとに先読みの深さぶん持って使い回す（GameBoard を複製しない）
+    // 盤面の大きさが変わったときだけ作り直す（MoveGenerator と手を選ぶための配列も同じ）
+    private final ThreadLocal<Choice> choices = new ThreadLocal<>();
+    private final ThreadLocal<GameBoard[]> scratch = new ThreadLocal<>();
+    private final ThreadLocal<int[][]> moveBuffers = new ThreadLocal<>();
+
+    // pool が null なら呼び出したスレッドだけで評価する（並列で何ゲームも回すとき用）
+    public AutoPlayer(Weights weights, int lookahead, ForkJoinPool pool) {
+        this(weights, lookahead, pool, new TranspositionTable());
+    }
+
+    // 表は同じ重みの AutoPlayer 同士なら共有してよい
+    public AutoPlayer(Weights weights, int lookahead, ForkJoinPool pool, TranspositionTable table) {
+        this.weights = weights;
+        this.lookahead = lookahead;
+        this.pool = pool;
+        this.table = table;
+    }
+
+    public AutoPlayer() {
+        this(Weights.defaults(), 1, ForkJoinPool.commonPool());
+    }
+
+    // 今のミノの手を選ぶための作業場所（MoveGenerator と、置き場所の数・先読みの深さぶんの配列）
+    private static final class Choice {
+        final MoveGenerator moves;
+        final int[] previews;
+        final int[] locks;
+        final double[] scores;
+        final int[] inputs;
+
+        Choice(GameBoard board, int lookahead) {
+            moves = new MoveGenerator(board);
+            previews = new int[lookahead];
+            locks = new int[moves.capacity()];
+            scores = new double[moves.capacity()];
+            inputs = new int[moves.capacity() + 1];
+        }
+    }
+
+    // 今のミノの置き場所を選んで、そこまでのいちばん短い入力（回転・移動・1 段下げ・ハードドロップ）をエンジンに渡す
+    public boolean play(GameEngine engine) {
+        if (!engine.isRunning() || engine.isPaused()) return false;
+        Choice choice = choiceFor(engine.getBoard());
+        int best = chooseIndex(engine, choice);
+        if (best < 0) return false;
+
+        int[] inputs = choice.inputs;
+        int n = choice.moves.inputs(best, inputs);
+        for (int i = 0; i < n; i++) {
+            switch (inputs[i]) {
+                case InputController.LEFT:
+                    engine.moveLeft();
+                    break;
+                case InputController.RIGHT:
+                    engine.moveRight();
+                    break;
+                case InputController.SOFT_DROP:
+                    engine.moveDown();
+                    break;
+                case InputController.ROTATE:
+                    engine.rotate();
+                    break;
+                default:
+                    engine.hardDrop();
+                    break;
+            }
+        }
+        return true;
+    }
+
+    // 今のミノの置き場所を探し、いちばん点数の高いものの番号を返す
+    // 配列は choice のものを使い回す（置き場所の数ぶんだけ使う）
+    private int chooseIndex(GameEngine engine, Choice choice) {
+        GameBoard board = engine.getBoard();
+        Piece piece = engine.getCurrentPiece();
+        int depth = Math.min(lookahead, engine.getPreviewDepth());
+        int[] previews = choice.previews;
+        for (int i = 0; i < depth; i++) {
+            previews[i] = engine.getPreview(i);
+        }
+
+        MoveGenerator moves = choice.moves;
+        int count = moves.search(board, piece.type, piece.rotation, piece.x, piece.y);
+        if (count == 0) return -1;
+        if (table != null) table.newSearch();
+
+        int[] locks = choice.locks;
+        for (int i = 0; i < count; i++) {
+            locks[i] = moves.lock(i);
+        }
+
+        double[] scores = choice.scores;
+        if (pool == null) {
+            for (int i = 0; i < count; i++) {
+                scores[i] = evaluateLock(board, piece.type, locks[i], previews, depth);
+            }
+        } else {
+            // 各ワーカーは自分の番号のところにだけ書く
+            pool.submit(() -> IntStream.range(0, count).parallel()
+                    .forEach(i -> scores[i] = evaluateLock(board, piece.type, locks[i], previews, depth))).join();
+        }
+
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        return best;
+    }
+
+    // lock の位置に置いた後の盤面を（先読みの previews[0..n) も含めて）評価する
+    private double evaluateLock(GameBoard board, int type, int lock, int[] previews, int n) {
+        GameBoard[] boards = scratchFor(board);
+        GameBoard work = boards[0];
+        work.copyFrom(board);
+        work.placePiece(type, MoveGenerator.rotationOf(lock), MoveGenerator.xOf(lock), MoveGenerator.yOf(lock));
+        int lines = work.clearLines();
+        return weights.lines * lines + search(work, previews, n, 0, boards);
+    }
+
+    // 先読みの depth 番目のミノで一番良い置き方の点数（n 個先読みし終えたら盤面の評価）
+    // 消えた行は置くたびに加点していく
+    private double search(GameBoard board, int[] previews, int n, int depth, GameBoard[] boards) {
+        if (depth == n) {
+            return evaluate(board);
+        }
+        long key = 0L;
+        if (table != null) {
+            key = searchKey(board, previews, n, depth);
+            double cached = table.probe(key);
+            if (!Double.isNaN(cached)) return cached;
+        }
+        int type = previews[depth];
+        int[] moves = movesFor(board)[depth];
+        int count = listMoves(board, type, 0, GameEngine.spawnX(board.getCols()), 0, moves);
+        if (count == 0) return -1e9;
+
+        GameBoard work = boards[depth + 1];
+        double best = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            work.copyFrom(board);
+            int lines = drop(work, type, moves[i], 0);
+            double s = weights.lines * lines + search(work, previews, n, depth + 1, boards);
+            if (s > best) best = s;
+        }
+        if (table != null) table.store(key, n - depth, best);
+        return best;
+    }
+
+    // 表の鍵：盤面（大きさ込み）と、これから置くミノの並び
+    private static long searchKey(GameBoard board, int[] previews, int n, int depth) {
+        long key = board.getHash() ^ ((long) board.getCols() << 48 | (long) board.getRows() << 32);
+        for (int i = depth; i < n; i++) {
+            key = GameBoard.mix64(key + previews[i] + 1);
+        }
+        return GameBoard.mix64(key ^ (n - depth));
+    }
+
+    private GameBoard[] scratchFor(GameBoard board) {
+        GameBoard[] boards = scratch.get();
+        if (boards == null || !boards[0].sameSize(board)) {
+            boards = new GameBoard[lookahead + 1];
+            for (int i = 0; i < boards.length; i++) {
+                boards[i] = new GameBoard(board.getCols(), board.getRows());
+            }
+            scratch.set(boards);
+        }
+        return boards;
+    }
+
+    private Choice choiceFor(GameBoard board) {
+        Choice choice = choices.get();
+        if (choice == null || choice.moves.cols != board.getCols() || choice.moves.rows != board.getRows()) {
+            choice = new Choice(board, lookahead);
+            choices.set(choice);
+        }
+        return choice;
+    }
+
+    private int[][] movesFor(GameBoard board) {
+        int[][] moves = moveBuffers.get();
+        if (moves == null || moves[0].length < maxMoves(board)) {
+            moves = new int[lookahead + 1][maxMoves(board)];
+            moveBuffers.set(moves);
+        }
+        return moves;
+    }
+
+    // 置いて行を消し、消えた行数を返す
+    private static int drop(GameBoard board, int type, int move, int y) {
+        int rot = rotationOf(move);
+        int x = xOf(move);
+        int landY = y + board.dropDistance(type, rot, x, y);
+        board.placePiece(type, rot, x, landY);
+        return board.clearLines();
+    }
+
+    // 盤面の点数（消えた行は置いたときに加点ずみ）
+    private double evaluate(GameBoard board) {
+        int aggregate = 0;
+        int bumpiness = 0;
+        int prev = board.getColumnHeight(0);
+        aggregate += prev;
+        for (int x = 1; x < board.getCols(); x++) {
+            int h = board.getColumnHeight(x);
+            aggregate += h;
+            bumpiness += Math.abs(h - prev);
+            prev = h;
+        }
+        return weights.height * aggregate
+                + weights.holes * board.getHoles()
+                + weights.bumpiness * bumpiness;
+    }
+
+    // (x0, y0, rot0) から右回転を重ねて向きを変え、その高さのまま横へずらして届く (向き, x) を並べる
+    // 同じ形になる向き（O や I の 180 度など）は最初の 1 つだけ
+    static int listMoves(GameBoard board, int type, int rot0, int x0, int y0, int[] out) {
+        if (!fits(board, type, rot0, x0, y0)) return 0;
+        int count = 0;
+        int rot = rot0;
+        for (int k = 0; k < Tetromino.ROTATIONS; k++) {
+            if (k > 0) {
+                rot = (rot + 1) & 3;
+                if (!fits(board, type, rot, x0, y0)) break;
+            }
+            if (sameShapeEarlier(type, rot0, k)) continue;
+
+            count = addSlides(board, type, rot, x0, y0, -1, count, out);
+            out[count++] = encode(rot, x0);
+            count = addSlides(board, type, rot, x0, y0, 1, count, out);
+        }
+        return count;
+    }
+
+    private static int addSlides(GameBoard board, int type, int rot, int x0, int y0, int dx, int count, int[] out) {
+        for (int x = x0 + dx; fits(board, type, rot, x, y0); x += dx) {
+            out[count++] = encode(rot, x);
+        }
+        return count;
+    }
+
+    private static boolean fits(GameBoard board, int type, int rot, int x, int y) {
+        return board.canPlace(Tetromino.masks(type, rot), Tetromino.height(type, rot), Tetromino.width(type, rot), x, y);
+    }
+
+    private static boolean sameShapeEarlier(int type, int rot0, int k) {
+        int rot = (rot0 + k) & 3;
+        for (int j = 0; j < k; j++) {
+            int other = (rot0 + j) & 3;
+            if (Tetromino.width(type, rot) != Tetromino.width(type, other)) continue;
+            boolean same = true;
+            for (int r = 0; r < Tetromino.height(type, rot); r++) {
+                if (Tetromino.mask(type, rot, r) != Tetromino.mask(type, other, r)) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same) return true;
+        }
+        return false;
+    }
+}
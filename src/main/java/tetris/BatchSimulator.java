@@ -0,0 +1,150 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 画面なしで大量のゲームを並列に回して統計を取る
+// 使い方: java tetris.BatchSimulator [games] [threads] [seed] [bag|random|fixed:IOTSZJL] [ai|random] [列x行]
+// fixed: のあとはミノの名前の並びで、それを繰り返す（ゲームごとのシードで始まる位置だけ変わる。AI を同じ並びで比べるとき用）
+public final class BatchSimulator {
+
+    private BatchSimulator() {}
+
+    // ワーカーごとの集計（最後にまとめる）
+    static final class Stats {
+        long games;
+        long pieces;
+        long lines;
+        long scoreSum;
+        int maxScore;
+        long gameOvers;
+
+        void add(GameEngine engine) {
+            games++;
+            pieces += engine.getPiecesPlaced();
+            lines += engine.getLinesClearedTotal();
+            scoreSum += engine.getScore();
+            maxScore = Math.max(maxScore, engine.getScore());
+            if (engine.isGameOver()) gameOvers++;
+        }
+
+        void merge(Stats o) {
+            games += o.games;
+            pieces += o.pieces;
+            lines += o.lines;
+            scoreSum += o.scoreSum;
+            maxScore = Math.max(maxScore, o.maxScore);
+            gameOvers += o.gameOvers;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        String generator = args.length > 3 ? args[3] : "random";
+        if (!PieceGenerator.isKnown(generator)) throw new IllegalArgumentException("ミノの出し方が不明です: " + generator);
+        boolean ai = args.length <= 4 || args[4].equals("ai");
+        int[] size = args.length > 5 ? GameBoard.parseSize(args[5]) : new int[] {GameBoard.COLS, GameBoard.ROWS};
+
+        long start = System.nanoTime();
+        Stats total = run(games, threads, seed, generator, ai, size[0], size[1]);
+        double sec = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf(Locale.ROOT, "games=%d threads=%d seed=%d generator=%s player=%s board=%dx%d time=%.3fs%n",
+                total.games, threads, seed, generator, ai ? "ai" : "random", size[0], size[1], sec);
+        System.out.printf(Locale.ROOT, "games/sec=%.1f pieces/sec=%.1f%n", total.games / sec, total.pieces / sec);
+        System.out.printf(Locale.ROOT, "score avg=%.1f max=%d lines avg=%.2f pieces avg=%.1f gameover=%d%n",
+                (double) total.scoreSum / Math.max(1, total.games), total.maxScore,
+                (double) total.lines / Math.max(1, total.games),
+                (double) total.pieces / Math.max(1, total.games), total.gameOvers);
+    }
+
+    // games 個のゲームを threads 本のワーカーで分け合って実行する
+    public static Stats run(int games, int threads, long seed, String generator, boolean ai)
+            throws InterruptedException, ExecutionException {
+        return run(games, threads, seed, generator, ai, GameBoard.COLS, GameBoard.ROWS);
+    }
+
+    public static Stats run(int games, int threads, long seed, String generator, boolean ai, int cols, int rows)
+            throws InterruptedException, ExecutionException {
+        AtomicInteger nextGame = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Future<Stats>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> worker(nextGame, games, seed, generator, ai, cols, rows)));
+            }
+            Stats total = new Stats();
+            for (Future<Stats> f : workers) {
+                total.merge(f.get());
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // エンジンはワーカーごとに 1 つだけ作って使い回す
+    private static Stats worker(AtomicInteger nextGame, int games, long seed, String generator, boolean ai,
+            int cols, int rows) {
+        ManualClock clock = new ManualClock();
+        GameEngine engine = new GameEngine(clock, PieceGenerator.create(generator, seed, GameEngine.PREVIEW_DEPTH),
+                cols, rows);
+        // ゲーム単位で並列にしているので、AI の評価はワーカーのスレッドの中だけで回す
+        AutoPlayer player = ai ? new AutoPlayer(AutoPlayer.Weights.defaults(), 1, null) : null;
+        Random input = new Random();
+        Stats stats = new Stats();
+
+        int game;
+        while ((game = nextGame.getAndIncrement()) < games) {
+            engine.reseed(seed + game);
+            if (player != null) {
+                playGame(engine, clock, player);
+            } else {
+                input.setSeed(~(seed + game));
+                playGame(engine, clock, input);
+            }
+            stats.add(engine);
+        }
+        return stats;
+    }
+
+    // AutoPlayer：ミノごとに置き場所を探してハードドロップ
+    static void playGame(GameEngine engine, ManualClock clock, AutoPlayer player) {
+        engine.reset();
+        engine.begin();
+        while (engine.isRunning()) {
+            player.play(engine);
+
+            clock.advance(engine.gravityDelay());
+            engine.tick();
+        }
+    }
+
+    // ランダム：ミノごとにランダムな向きと列を選んでハードドロップ
+    static void playGame(GameEngine engine, ManualClock clock, Random input) {
+        engine.reset();
+        engine.begin();
+        while (engine.isRunning()) {
+            int turns = input.nextInt(Tetromino.ROTATIONS);
+            for (int i = 0; i < turns; i++) {
+                engine.rotate();
+            }
+            int dx = input.nextInt(engine.getBoard().getCols()) - engine.spawnX;
+            for (int i = 0; i < Math.abs(dx); i++) {
+                if (dx < 0) engine.moveLeft(); else engine.moveRight();
+            }
+            engine.hardDrop();
+
+            clock.advance(engine.gravityDelay());
+            engine.tick();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package tetris;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.locks.LockSupport;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+// BGM をリソースから少しずつ読んでループ再生する
+// 読み込みスレッドが固定長のリングバッファ（約 1.5 秒ぶん）へミキサーの形式で書き、
+// ミキサースレッドはそこから取り出すだけ。曲の長さに関係なくメモリは一定
+final class BgmStream implements Runnable {
+
+    private static final int RING_SAMPLES = 1 << 17; // 約 1.5 秒（44.1kHz ステレオ）
+    private static final int READ_FRAMES = 4096;
+
+    private final URL url;
+    private final short[] ring = new short[RING_SAMPLES];
+    private final int mask = RING_SAMPLES - 1;
+    // 書き込み側・読み出し側それぞれの通し位置（サンプル単位）
+    private volatile long written;
+    private volatile long read;
+    private volatile boolean closed;
+    private final Thread thread;
+
+    // 読み込みスレッドだけが使う作業領域
+    private final byte[] bytes = new byte[READ_FRAMES * 8];
+    private short[] src = new short[(READ_FRAMES + 1) * 2];
+    private short[] dst = new short[0];
+    private int srcFrames;
+    private double srcPos;
+
+    private BgmStream(URL url) {
+        this.url = url;
+        this.thread = new Thread(this, "bgm-stream");
+        this.thread.setDaemon(true);
+    }
+
+    // リソースがなければ null
+    static BgmStream open(String path) {
+        URL url = BgmStream.class.getResource(path);
+        if (url == null) {
+            System.out.println("音声ファイルが見つかりません: " + path);
+            return null;
+        }
+        BgmStream s = new BgmStream(url);
+        s.thread.start();
+        return s;
+    }
+
+    void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+    }
+
+    // ミキサースレッドから：mix[0..len) に足し込む（間に合わなかった分は無音）
+    void mixInto(int[] mix, int len) {
+        long r = read;
+        // 左右がずれないようにフレーム単位（偶数サンプル）で取り出す
+        int n = (int) Math.min(len, written - r) & ~1;
+        for (int i = 0; i < n; i++) {
+            mix[i] += ring[(int) (r + i) & mask];
+        }
+        read = r + n;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed) {
+                // 末尾まで読んだら開き直して頭からつなげる
+                if (!streamOnce()) return;
+            }
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // 1 周ぶん流す（中身が空なら false）
+    private boolean streamOnce() throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(url)) {
+            AudioFormat f = in.getFormat();
+            int channels = f.getChannels();
+            AudioFormat pcm16 = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, f.getSampleRate(), 16,
+                    channels, channels * 2, f.getSampleRate(), false);
+            try (AudioInputStream ais = AudioSystem.getAudioInputStream(pcm16, in)) {
+                boolean any = false;
+                int frameBytes = channels * 2;
+                int want = Math.min(bytes.length, READ_FRAMES * frameBytes);
+                int n;
+                while (!closed && (n = readFully(ais, bytes, want - want % frameBytes)) > 0) {
+                    any = true;
+                    int produced = convert(bytes, n / frameBytes, channels, f.getSampleRate());
+                    push(dst, produced);
+                }
+                return any;
+            }
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buf, int len) throws IOException {
+        int off = 0;
+        while (off < len) {
+            int n = in.read(buf, off, len - off);
+            if (n < 0) break;
+            off += n;
+        }
+        return off;
+    }
+
+    // 読んだ frames フレームをミキサーの形式にして dst に入れ、サンプル数を返す
+    // 周波数の変換は線形補間で、チャンク境界をまたぐため直前の 1 フレームと小数位置を持ち越す
+    private int convert(byte[] data, int frames, int channels, float rate) {
+        if (channels == AudioMixer.CHANNELS && rate == AudioMixer.SAMPLE_RATE) {
+            ensureDst(frames * 2);
+            for (int i = 0; i < frames * 2; i++) {
+                dst[i] = (short) ((data[i * 2] & 0xFF) | (data[i * 2 + 1] << 8));
+            }
+            return frames * 2;
+        }
+
+        // src の先頭は前回の最後のフレーム（初回は無し）
+        int base = srcFrames > 0 ? 1 : 0;
+        if (src.length < (base + frames) * AudioMixer.CHANNELS) {
+            short[] grown = new short[(base + frames) * AudioMixer.CHANNELS];
+            System.arraycopy(src, 0, grown, 0, base * AudioMixer.CHANNELS);
+            src = grown;
+        }
+        for (int i = 0; i < frames; i++) {
+            for (int c = 0; c < AudioMixer.CHANNELS; c++) {
+                int sc = Math.min(c, channels - 1);
+                int b = (i * channels + sc) * 2;
+                src[(base + i) * AudioMixer.CHANNELS + c] = (short) ((data[b] & 0xFF) | (data[b + 1] << 8));
+            }
+        }
+        srcFrames = base + frames;
+
+        double step = rate / AudioMixer.SAMPLE_RATE;
+        ensureDst((int) ((srcFrames - srcPos) / step + 2) * AudioMixer.CHANNELS);
+        int out = 0;
+        while (srcPos + 1 < srcFrames) {
+            int f0 = (int) srcPos;
+            double t = srcPos - f0;
+            for (int c = 0; c < AudioMixer.CHANNELS; c++) {
+                double s0 = src[f0 * AudioMixer.CHANNELS + c];
+                double s1 = src[(f0 + 1) * AudioMixer.CHANNELS + c];
+                dst[out++] = (short) Math.round(s0 + (s1 - s0) * t);
+            }
+            srcPos += step;
+        }
+        // 最後のフレームを先頭へ持ち越す
+        int last = srcFrames - 1;
+        System.arraycopy(src, last * AudioMixer.CHANNELS, src, 0, AudioMixer.CHANNELS);
+        srcPos -= last;
+        srcFrames = 1;
+        return out;
+    }
+
+    private void ensureDst(int samples) {
+        if (dst.length < samples) dst = new short[samples];
+    }
+
+    // リングに空きができるまで待ちながら書く
+    private void push(short[] data, int len) {
+        int off = 0;
+        while (off < len && !closed) {
+            long w = written;
+            int free = (int) (RING_SAMPLES - (w - read));
+            if (free == 0) {
+                LockSupport.parkNanos(this, 5_000_000L);
+                continue;
+            }
+            int n = Math.min(free, len - off);
+            for (int i = 0; i < n; i++) {
+                ring[(int) (w + i) & mask] = data[off + i];
+            }
+            written = w + n;
+            off += n;
+        }
+    }
+}
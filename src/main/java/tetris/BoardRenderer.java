@@ -0,0 +1,212 @@
+package tetris;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+// 盤面の描画
+// 罫線は最初に一度だけ画像に描き、固定済みブロックは盤面が変わったとき（version が進んだとき）だけ
+// その上に描き直す。毎フレームは画像を 1 枚貼ってから動いているミノだけを描く
+// 大きさ（マスの大きさ・右側の表示の位置）は盤面の列数・行数から決める
+final class BoardRenderer {
+
+    static final int BLOCK = TetrisPanel.BLOCK;
+    static final int OFFSET_Y = TetrisPanel.OFFSET_Y;
+
+    // 盤面を描く範囲の上限（収まらない盤面はマスを小さくする、最小 1px）
+    static final int MAX_WIDTH = 900;
+    static final int MAX_HEIGHT = GameBoard.ROWS * BLOCK;
+
+    // 右側の表示は盤面の右端からこれだけ空けて、この幅で描く
+    static final int HUD_GAP = 30;
+    static final int HUD_WIDTH = 150;
+
+    // マスがこれより小さいときは罫線・枠線を描かない（線で埋まってしまうため）
+    private static final int MIN_OUTLINED = 4;
+
+    final int cols;
+    final int rows;
+    final int block;
+    final int width;
+    final int height;
+
+    // フォントは毎回作らずに使い回す
+    static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 32);
+    static final Font MESSAGE_FONT = new Font("Arial", Font.BOLD, 48);
+    static final Font RANKING_TITLE_FONT = new Font("Arial", Font.BOLD, 28);
+    static final Font RANKING_FONT = new Font("Arial", Font.PLAIN, 22);
+    static final Font HINT_FONT = new Font("Arial", Font.PLAIN, 14);
+
+    private static final AlphaComposite GHOST = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.25F);
+
+    // 罫線の右端・下端の 1px ぶん大きくとる
+    private final BufferedImage grid;
+    private final BufferedImage layer;
+    private GameBoard cachedBoard;
+    private long cachedVersion = -1;
+
+    BoardRenderer(GameBoard board) {
+        this(board.getCols(), board.getRows());
+    }
+
+    BoardRenderer(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.block = Math.max(1, Math.min(BLOCK, Math.min(MAX_WIDTH / cols, MAX_HEIGHT / rows)));
+        this.width = cols * block;
+        this.height = rows * block;
+        this.grid = new BufferedImage(width + 1, height + 1, BufferedImage.TYPE_INT_RGB);
+        this.layer = new BufferedImage(width + 1, height + 1, BufferedImage.TYPE_INT_RGB);
+
+        Graphics g = grid.getGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width + 1, height + 1);
+        g.setColor(Color.DARK_GRAY);
+        if (block >= MIN_OUTLINED) {
+            for (int y = 0; y <= rows; ++y) {
+                g.drawLine(0, y * block, width, y * block);
+            }
+            for (int x = 0; x <= cols; ++x) {
+                g.drawLine(x * block, 0, x * block, height);
+            }
+        } else {
+            g.drawRect(0, 0, width, height);
+        }
+        g.dispose();
+    }
+
+    // 右側の表示の左端
+    int hudX() {
+        return width + HUD_GAP;
+    }
+
+    // 盤面と右側の表示が収まる画面の大きさ
+    Dimension preferredSize() {
+        return new Dimension(hudX() + HUD_WIDTH, Math.max(640, OFFSET_Y + height));
+    }
+
+    // 罫線と固定済みブロック
+    void drawBoard(Graphics g, GameBoard board) {
+        if (board != cachedBoard || board.getVersion() != cachedVersion) {
+            redraw(board);
+        }
+        g.drawImage(layer, 0, OFFSET_Y, null);
+    }
+
+    private void redraw(GameBoard board) {
+        Graphics g = layer.getGraphics();
+        g.drawImage(grid, 0, 0, null);
+        for (int y = 0; y < rows; ++y) {
+            if (board.getRowFill(y) == 0) continue;
+            for (int x = 0; x < cols; ++x) {
+                Color c = board.getColor(x, y);
+                if (c != null) {
+                    drawCell(g, x * block, y * block, block, c);
+                }
+            }
+        }
+        g.dispose();
+        cachedBoard = board;
+        cachedVersion = board.getVersion();
+    }
+
+    // y の高さにあるミノ（ghost なら半透明）
+    void drawPiece(Graphics g, Piece piece, int y, boolean ghost) {
+        drawPiece(g, piece, y, 0, ghost);
+    }
+
+    // 描く位置を下へ offsetPx だけずらす（補間して描くとき用）
+    void drawPiece(Graphics g, Piece piece, int y, int offsetPx, boolean ghost) {
+        Graphics2D g2 = (Graphics2D) g;
+        Composite old = g2.getComposite();
+        if (ghost) g2.setComposite(GHOST);
+        for (int i = 0; i < Tetromino.CELLS; ++i) {
+            int cy = y + piece.cellY(i);
+            if (cy >= 0) {
+                drawCell(g2, (piece.x + piece.cellX(i)) * block, cy * block + OFFSET_Y + offsetPx, block, piece.getColor());
+            }
+        }
+        g2.setComposite(old);
+    }
+
+    static void drawCell(Graphics g, int px, int py, Color color) {
+        drawCell(g, px, py, BLOCK, color);
+    }
+
+    static void drawCell(Graphics g, int px, int py, int size, Color color) {
+        g.setColor(color);
+        g.fillRect(px, py, size, size);
+        if (size < MIN_OUTLINED) return;
+        g.setColor(Color.BLACK);
+        g.drawRect(px, py, size, size);
+    }
+
+    // y の高さにあるミノが描く範囲（パネル座標、枠線の 1px を含む）
+    Rectangle pieceBounds(Piece piece, int y, Rectangle out) {
+        int top = Math.max(0, y);
+        int bottom = y + Tetromino.height(piece.type, piece.rotation);
+        if (bottom <= top) {
+            out.setBounds(0, 0, 0, 0);
+            return out;
+        }
+        out.setBounds(piece.x * block, top * block + OFFSET_Y,
+                piece.width() * block + 1, (bottom - top) * block + 1);
+        return out;
+    }
+
+    // 右側の NEXT・スコアなど（redScore なら Score を赤で）
+    void drawHud(Graphics g, GameEngine engine, boolean redScore, boolean auto) {
+        int hudX = hudX();
+
+        // NEXT表示（NEXT は盤面の大きさによらず標準のマスで描く）
+        g.setColor(Color.WHITE);
+        g.drawString("NEXT:", hudX, 30);
+
+        int nextType = engine.getNextType();
+        if (nextType >= 0) {
+            for (int i = 0; i < Tetromino.CELLS; ++i) {
+                int px = hudX + Tetromino.cellX(nextType, 0, i) * BLOCK;
+                int py = OFFSET_Y + Tetromino.cellY(nextType, 0, i) * BLOCK;
+                drawCell(g, px, py, Tetromino.COLORS[nextType]);
+            }
+        }
+
+        g.setColor(redScore ? Color.RED : Color.WHITE);
+        g.drawString("Score: " + engine.getScore(), hudX, 160);
+
+        g.setColor(Color.WHITE);
+        g.drawString("Level: " + engine.getLevel(), hudX, 180);
+        g.drawString("Time: " + formatTime(displaySeconds(engine)), hudX, 200);
+        if (auto) {
+            g.drawString("AUTO", hudX, 220);
+        }
+    }
+
+    // 表示する時間（時間制限のないモードは経過時間）
+    static int displaySeconds(GameEngine engine) {
+        return engine.getMode().isTimed() ? engine.getRemainingSeconds() : (int) (engine.getElapsedMs() / 1000L);
+    }
+
+    static String formatTime(int sec) {
+        int m = sec / 60;
+        int s = sec % 60;
+        return String.format("%d:%02d", m, s);
+    }
+
+    // 盤面の真ん中あたりに大きく書く
+    void drawCenteredText(Graphics g, String msg, Color color) {
+        g.setColor(color);
+        g.setFont(MESSAGE_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        int x = (width - fm.stringWidth(msg)) / 2;
+        int y = OFFSET_Y + height / 2 - 20;
+        g.drawString(msg, x, y);
+    }
+}
@@ -0,0 +1,62 @@
+package tetris;
+
+// 決まった並びを繰り返す（再現テスト・ベンチマーク・AI の比べ合い用）
+// PieceGenerator.create では "fixed:" に続けてミノの名前（Tetromino.NAMES の文字）を並べて選ぶ（例 "fixed:TSZL"）
+// シードは並びの開始位置として使う
+public class FixedSequenceGenerator extends QueuedPieceGenerator {
+
+    static final String PREFIX = "fixed:";
+
+    private final int[] sequence;
+    private int index;
+
+    public FixedSequenceGenerator(int[] sequence, long seed, int previewDepth) {
+        super(previewDepth);
+        if (sequence.length == 0) throw new IllegalArgumentException("並びが空です");
+        for (int type : sequence) {
+            if (type < 0 || type >= Tetromino.COUNT) throw new IllegalArgumentException("ミノの種類が不正です: " + type);
+        }
+        this.sequence = sequence.clone();
+        reseed(seed);
+    }
+
+    // "fixed:IOTSZJL" の形の名前から並びを読む（形が違えば null）
+    static int[] parse(String kind) {
+        if (!kind.startsWith(PREFIX) || kind.length() == PREFIX.length()) return null;
+        int[] sequence = new int[kind.length() - PREFIX.length()];
+        for (int i = 0; i < sequence.length; i++) {
+            sequence[i] = Tetromino.NAMES.indexOf(kind.charAt(PREFIX.length() + i));
+            if (sequence[i] < 0) return null;
+        }
+        return sequence;
+    }
+
+    @Override
+    protected int generate() {
+        int type = sequence[index];
+        index = index + 1 == sequence.length ? 0 : index + 1;
+        return type;
+    }
+
+    @Override
+    protected void restart(long seed) {
+        index = (int) Math.floorMod(seed, (long) sequence.length);
+    }
+
+    @Override
+    protected int extraStateSize() {
+        return 1;
+    }
+
+    @Override
+    protected void saveExtra(long[] out, int offset) {
+        out[offset] = index;
+    }
+
+    @Override
+    protected void restoreExtra(long[] in, int offset) {
+        long i = in[offset];
+        if (i < 0 || i >= sequence.length) throw new IllegalArgumentException("並びの位置が不正です: " + i);
+        index = (int) i;
+    }
+}
@@ -0,0 +1,74 @@
+package tetris;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// フレーム間隔などの時間の記録（直近 SAMPLES 件ぶん）と分位点の集計
+// 描画ループ・Swing のタイマーのどちらでも使い、同じ形式で比べられるようにする
+final class FrameStats {
+
+    private static final int SAMPLES = 4096;
+
+    // 集計を標準出力に出すか（java tetris.Main --stats、または -Dtetris.stats=true）
+    static final String PROPERTY = "tetris.stats";
+
+    static boolean reporting() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    // reporting() のときだけ集計を表示する
+    static void report(FrameStats... stats) {
+        if (!reporting()) return;
+        for (FrameStats s : stats) {
+            System.out.println(s.summary());
+        }
+    }
+
+    private final String name;
+    private final long[] samples = new long[SAMPLES];
+    private int count;
+    private long last;
+
+    FrameStats(String name) {
+        this.name = name;
+    }
+
+    // 1 フレーム描いた時刻を記録する（前回からの間隔を積む）
+    void frame(long nanos) {
+        if (last != 0L) {
+            add(nanos - last);
+        }
+        last = nanos;
+    }
+
+    // 間隔ではなく値そのものを積む（入力から表示までの遅れなど）
+    void add(long nanos) {
+        samples[count++ % SAMPLES] = nanos;
+    }
+
+    // 途中で止まった区間（ポーズ・画面切替など）を間隔に数えない
+    void skip() {
+        last = 0L;
+    }
+
+    void clear() {
+        count = 0;
+        last = 0L;
+    }
+
+    // 例: "active samples=3600 p50=16.67ms p95=16.90ms p99=17.40ms max=20.01ms"
+    String summary() {
+        int n = Math.min(count, SAMPLES);
+        if (n == 0) return name + " samples=0";
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        return String.format(Locale.ROOT, "%s samples=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                name, count, percentile(sorted, 50) / 1e6, percentile(sorted, 95) / 1e6,
+                percentile(sorted, 99) / 1e6, sorted[n - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        int i = (int) Math.ceil(sorted.length * p / 100.0) - 1;
+        return sorted[Math.max(0, i)];
+    }
+}
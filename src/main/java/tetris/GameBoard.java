@@ -1,64 +1,744 @@
 package tetris;
 
 import java.awt.Color;
+import java.util.Arrays;
 
 public class GameBoard {
 
+    // 標準の盤面の大きさ（大きさは new GameBoard(cols, rows) で変えられる）
     public static final int COLS = 10;
     public static final int ROWS = 20;
 
-    // [row][col]
-    Color[][] board = new Color[ROWS][COLS];
+    // 盤面の大きさの上限（リプレイ・セーブには short で書く）
+    public static final int MAX_SIZE = Short.MAX_VALUE;
+
+    final int cols;
+    final int rows;
+
+    // 1 行・1 列ぶんの long の数
+    final int rowWords;
+    final int colWords;
+
+    // 各行の占有状態（行 y の bit x = 列 x が埋まっている）[y * rowWords + x / 64]
+    // 当たり判定は long 単位でまとめて調べるので、幅がいくつでも 1 行あたり 1～2 語しか見ない
+    final long[] rowBits;
+
+    // 各列の占有状態（列 x の bit y = 行 y が埋まっている）[x * colWords + y / 64]、落下距離を列ごとに一発で求めるため
+    final long[] colBits;
+
+    // 描画用の色（パレット番号、0 = 空）[row * cols + col]
+    final byte[] colors;
+
+    // placeBlock / clearLines のたびに差分で更新する集計（AI や着地位置計算で盤面を見直さないため）
+    // 列の高さ（0 = 空、rows = 最上段まで）
+    private final int[] heights;
+    // 列ごとの穴の数（列の一番上のブロックより下にある空きマス）
+    private final int[] columnHoles;
+    // 行ごとの埋まっているマス数
+    private final int[] rowFill;
+    private int holes;
+
+    // 盤面を書き換えるたびに増える版番号（計算結果のキャッシュ判定用）
+    private long version;
+
+    // 埋まっているマスの Zobrist ハッシュ（色は含めない、探索結果の表引き用）
+    // 行ごとに埋まっている列の鍵を XOR した値を持ち、盤面のハッシュは (行, その値) の鍵を全行 XOR したもの
+    // 行が消えて下がっても、動いた行の鍵を付け替えるだけで求め直さずに済む
+    private final long[] rowKeys;
+    private long hash;
+
+    // snapshot() の行の共有：shared[y] は最後に写した（戻した）行で、dirty の立っていない行は今もその中身のまま
+    // null なら全行を写し直す
+    private Row[] shared;
+    private final long[] dirty;
+
+    // push() / pop() の取り消し用の記録（使い回して伸ばすだけ）
+    private long[] undoLongs = new long[256];
+    private int[] undoInts = new int[256];
+    private byte[] undoBytes = new byte[256];
+    private int[] undoFrames = new int[64];
+    private int undoLongCount;
+    private int undoIntCount;
+    private int undoByteCount;
+    private int undoDepth;
+
+    // 直前の clearLines で消えた行（描画・得点計算で盤面を見直さないため）
+    private final int[] clearedRows;
+    private int clearedCount;
+
+    public GameBoard() {
+        this(COLS, ROWS);
+    }
+
+    // ミノが回せるよう縦横とも 4 マス以上
+    public GameBoard(int cols, int rows) {
+        if (cols < Tetromino.CELLS || rows < Tetromino.CELLS || cols > MAX_SIZE || rows > MAX_SIZE) {
+            throw new IllegalArgumentException("盤面の大きさが不正です: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.rowWords = (cols + 63) >>> 6;
+        this.colWords = (rows + 63) >>> 6;
+        this.rowBits = new long[rows * rowWords];
+        this.colBits = new long[cols * colWords];
+        this.colors = new byte[rows * cols];
+        this.heights = new int[cols];
+        this.columnHoles = new int[cols];
+        this.rowFill = new int[rows];
+        this.clearedRows = new int[rows];
+        this.rowKeys = new long[rows];
+        this.dirty = new long[colWords];
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // "10x20" のような指定を {列, 行} にする（コマンドラインの --board 用）
+    static int[] parseSize(String text) {
+        int sep = text.indexOf('x');
+        if (sep < 0) throw new IllegalArgumentException("盤面の大きさは 列x行 で指定します: " + text);
+        return new int[] {Integer.parseInt(text.substring(0, sep)), Integer.parseInt(text.substring(sep + 1))};
+    }
+
+    public boolean sameSize(GameBoard other) {
+        return cols == other.cols && rows == other.rows;
+    }
 
     public void clear() {
-        for (int y = 0; y < ROWS; y++) {
-            for (int x = 0; x < COLS; x++) {
-                board[y][x] = null;
-            }
+        Arrays.fill(rowBits, 0L);
+        Arrays.fill(colBits, 0L);
+        Arrays.fill(colors, (byte) 0);
+        Arrays.fill(heights, 0);
+        Arrays.fill(columnHoles, 0);
+        Arrays.fill(rowFill, 0);
+        Arrays.fill(rowKeys, 0L);
+        holes = 0;
+        hash = 0L;
+        clearedCount = 0;
+        shared = null;
+        dropUndo();
+        version++;
+    }
+
+    // 盤面をまるごと写す（作業用の盤面を使い回すため、大きさは同じであること）
+    public void copyFrom(GameBoard other) {
+        if (!sameSize(other)) {
+            throw new IllegalArgumentException("盤面の大きさが違います: " + other.cols + "x" + other.rows);
         }
+        System.arraycopy(other.rowBits, 0, rowBits, 0, rowBits.length);
+        System.arraycopy(other.colBits, 0, colBits, 0, colBits.length);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        System.arraycopy(other.heights, 0, heights, 0, cols);
+        System.arraycopy(other.columnHoles, 0, columnHoles, 0, cols);
+        System.arraycopy(other.rowFill, 0, rowFill, 0, rows);
+        System.arraycopy(other.rowKeys, 0, rowKeys, 0, rows);
+        holes = other.holes;
+        hash = other.hash;
+        shared = null;
+        dropUndo();
+        version++;
     }
 
     public boolean isOccupied(int x, int y) {
-        if (x < 0 || x >= COLS || y < 0 || y >= ROWS) return true;
-        return board[y][x] != null;
+        if (x < 0 || x >= cols || y < 0 || y >= rows) return true;
+        return (rowBits[y * rowWords + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    // 描画用：セルの色（空なら null）
+    public Color getColor(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) return null;
+        return Tetromino.paletteColor(colors[y * cols + x]);
+    }
+
+    // 行ごとのビットマスク（masks[r] の bit c = 形状の列 c）を (baseX, baseY) に置けるか
+    // 形状は 4 マス幅までなので、語の境目にかかるときだけ隣の語も見る
+    public boolean canPlace(int[] masks, int height, int width, int baseX, int baseY) {
+        if (baseX < 0 || baseX + width > cols || baseY + height > rows) return false;
+        int word = baseX >>> 6;
+        int shift = baseX & 63;
+        for (int r = 0; r < height; r++) {
+            int y = baseY + r;
+            if (y < 0) continue;
+            long mask = masks[r];
+            int i = y * rowWords + word;
+            if ((rowBits[i] & (mask << shift)) != 0) return false;
+            if (shift != 0) {
+                long spill = mask >>> (64 - shift);
+                if (spill != 0 && (rowBits[i + 1] & spill) != 0) return false;
+            }
+        }
+        return true;
     }
 
     public void placeBlock(int baseX, int baseY, int[][] shape, Color color) {
+        byte colorIndex = Tetromino.paletteIndex(color);
         for (int r = 0; r < shape.length; r++) {
             for (int c = 0; c < shape[0].length; c++) {
                 if (shape[r][c] == 1) {
                     int x = baseX + c;
                     int y = baseY + r;
-                    if (y >= 0 && y < ROWS && x >= 0 && x < COLS) {
-                        board[y][x] = color;
+                    if (y >= 0 && y < rows && x >= 0 && x < cols) {
+                        fill(x, y, colorIndex);
                     }
                 }
             }
         }
     }
 
+    // 回転テーブルの向きをそのまま固定する（配列を作らない）
+    public void placePiece(int type, int rotation, int baseX, int baseY) {
+        byte colorIndex = (byte) (type + 1);
+        for (int i = 0; i < Tetromino.CELLS; i++) {
+            int x = baseX + Tetromino.cellX(type, rotation, i);
+            int y = baseY + Tetromino.cellY(type, rotation, i);
+            if (y >= 0 && y < rows && x >= 0 && x < cols) {
+                fill(x, y, colorIndex);
+            }
+        }
+    }
+
+    // 1 マス埋めて高さ・穴・行の埋まり数を差分更新する
+    private void fill(int x, int y, byte colorIndex) {
+        colors[y * cols + x] = colorIndex;
+        int i = y * rowWords + (x >>> 6);
+        long bit = 1L << x;
+        if ((rowBits[i] & bit) != 0) return;
+        rowBits[i] |= bit;
+        colBits[x * colWords + (y >>> 6)] |= 1L << y;
+        rowFill[y]++;
+        version++;
+
+        long key = rowKeys[y];
+        rowKeys[y] = key ^ cellKey(x);
+        hash ^= rowKey(y, key) ^ rowKey(y, rowKeys[y]);
+        dirty[y >>> 6] |= 1L << y;
+
+        int top = rows - heights[x];
+        if (y > top) {
+            // 穴を埋めた
+            columnHoles[x]--;
+            holes--;
+        } else {
+            // 列の一番上が上がった：間の空きマスは穴になる
+            int gap = top - y - 1;
+            columnHoles[x] += gap;
+            holes += gap;
+            heights[x] = rows - y;
+        }
+    }
+
+    // 揃った行を消して、残った行を下に詰める
+    // 残る行は最終位置へ 1 回だけ書く（消えた行の数だけずらし直さない）
     public int clearLines() {
         int cleared = 0;
-        for (int y = 0; y < ROWS; y++) {
-            boolean full = true;
-            for (int x = 0; x < COLS; x++) {
-                if (board[y][x] == null) {
-                    full = false;
-                    break;
-                }
+        int dst = rows - 1;
+        for (int y = rows - 1; y >= 0; y--) {
+            if (rowFill[y] == cols) {
+                clearedRows[cleared++] = y;
+                hash ^= rowKey(y, rowKeys[y]);
+                continue;
             }
-            if (full) {
-                // 1 行詰める
-                for (int yy = y; yy > 0; yy--) {
-                    System.arraycopy(board[yy - 1], 0, board[yy], 0, COLS);
-                }
-                // 最上段を空に
-                for (int x = 0; x < COLS; x++) {
-                    board[0][x] = null;
-                }
-                cleared++;
+            if (dst != y) {
+                System.arraycopy(rowBits, y * rowWords, rowBits, dst * rowWords, rowWords);
+                rowFill[dst] = rowFill[y];
+                System.arraycopy(colors, y * cols, colors, dst * cols, cols);
+                long key = rowKeys[y];
+                rowKeys[dst] = key;
+                hash ^= rowKey(y, key) ^ rowKey(dst, key);
+            }
+            dst--;
+        }
+        clearedCount = cleared;
+        if (cleared == 0) return 0;
+        version++;
+        markDirty(0, clearedRows[0]);
+
+        // 上に空いた分を空にする
+        Arrays.fill(rowBits, 0, (dst + 1) * rowWords, 0L);
+        Arrays.fill(rowFill, 0, dst + 1, 0);
+        Arrays.fill(rowKeys, 0, dst + 1, 0L);
+        Arrays.fill(colors, 0, (dst + 1) * cols, (byte) 0);
+
+        // 揃った行はどの列も埋まっているので、一番上の揃った行より上にブロックがある列は
+        // 高さが消えた行数だけ下がるだけ（穴は変わらない）
+        int topCleared = clearedRows[cleared - 1];
+        for (int x = 0; x < cols; x++) {
+            // 列のビットからも消えた行を抜く（上の行から順に抜けば下の行番号は変わらない）
+            int base = x * colWords;
+            for (int i = cleared - 1; i >= 0; i--) {
+                removeRow(base, clearedRows[i]);
+            }
+
+            if (rows - heights[x] < topCleared) {
+                heights[x] -= cleared;
+            } else {
+                // 列の一番上が消えた：その列だけ列のビットから求め直す
+                holes -= columnHoles[x];
+                rescanColumn(x);
+                holes += columnHoles[x];
             }
         }
         return cleared;
     }
-}
\ No newline at end of file
+
+    // 列のビット（base から colWords 語）から行 y を抜き、それより上（y の小さい側）を 1 つずつ下げる
+    // 語をまたぐぶんは 1 つ上の語の最上位ビットを繰り下げる
+    private void removeRow(int base, int y) {
+        int w = y >>> 6;
+        int b = y & 63;
+        long word = colBits[base + w];
+        long carry = w == 0 ? 0L : colBits[base + w - 1] >>> 63;
+        colBits[base + w] = (word & (-2L << b)) | ((word & ((1L << b) - 1)) << 1) | carry;
+        for (w--; w >= 0; w--) {
+            carry = w == 0 ? 0L : colBits[base + w - 1] >>> 63;
+            colBits[base + w] = (colBits[base + w] << 1) | carry;
+        }
+    }
+
+    private void rescanColumn(int x) {
+        int base = x * colWords;
+        int top = rows;
+        int count = 0;
+        for (int w = 0; w < colWords; w++) {
+            long bits = colBits[base + w];
+            if (bits == 0) continue;
+            if (top == rows) top = (w << 6) + Long.numberOfTrailingZeros(bits);
+            count += Long.bitCount(bits);
+        }
+        heights[x] = rows - top;
+        columnHoles[x] = heights[x] - count;
+    }
+
+    // 列 x で行 from 以降（下方向）にある最初のブロックの行（なければ rows）
+    private int nextFilled(int x, int from) {
+        if (from >= rows) return rows;
+        int base = x * colWords;
+        int w = from >>> 6;
+        long bits = colBits[base + w] & (-1L << from);
+        while (bits == 0) {
+            if (++w == colWords) return rows;
+            bits = colBits[base + w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    // (baseX, baseY) にある向き rotation のミノが何段落ちられるか
+    // 各列でいちばん下のブロックから下を列のビットで調べるので、張り出しの下でも列ごとに語の数だけ
+    public int dropDistance(int type, int rotation, int baseX, int baseY) {
+        int w = Tetromino.width(type, rotation);
+        // 盤面より上（baseY < 0）から落とすと rows 段より多く落ちることがある
+        int dist = Integer.MAX_VALUE;
+        for (int c = 0; c < w; c++) {
+            int x = baseX + c;
+            if (x < 0 || x >= cols) return 0;
+            int start = baseY + Tetromino.bottom(type, rotation, c) + 1;
+            int hit = nextFilled(x, Math.max(start, 0));
+            dist = Math.min(dist, hit - start);
+        }
+        return Math.max(dist, 0);
+    }
+
+    // ---- 手を置いて戻す（探索用） ----
+
+    // 向き rotation のミノを (baseX, baseY) に置いて揃った行を消し、消えた行数を返す（置ける位置であること）
+    // pop() で元に戻す。行が消えないときは置いた列の高さ・穴と行の鍵だけを記録してマスを抜いて戻し、
+    // 消えるときは書き換わる範囲（置いた行から上の埋まっている行まで）を記録して書き戻す
+    public int push(int type, int rotation, int baseX, int baseY) {
+        int[] masks = Tetromino.masks(type, rotation);
+        int height = Tetromino.height(type, rotation);
+        boolean clears = false;
+        for (int r = 0; r < height; r++) {
+            int y = baseY + r;
+            if (y >= 0 && y < rows && rowFill[y] + Integer.bitCount(masks[r]) == cols) clears = true;
+        }
+        if (clears) {
+            saveFrame(Math.max(0, Math.min(baseY, getTopRow())), Math.min(rows - 1, baseY + height - 1));
+        } else {
+            savePieceFrame(type, rotation, baseX, baseY);
+        }
+        placePiece(type, rotation, baseX, baseY);
+        return clearLines();
+    }
+
+    // 直前の push() を取り消す
+    public void pop() {
+        if (undoDepth == 0) throw new IllegalStateException("取り消す手がありません");
+        int f = --undoDepth * 4;
+        int longStart = undoFrames[f];
+        int intStart = undoFrames[f + 1];
+        int byteStart = undoFrames[f + 2];
+        if (undoFrames[f + 3] < 0) {
+            popPiece(longStart, intStart);
+            return;
+        }
+        int lo = undoFrames[f + 3] >>> 16;
+        int hi = undoFrames[f + 3] & 0xFFFF;
+        int n = hi - lo + 1;
+
+        int lp = longStart;
+        System.arraycopy(undoLongs, lp, rowBits, lo * rowWords, n * rowWords);
+        lp += n * rowWords;
+        System.arraycopy(undoLongs, lp, rowKeys, lo, n);
+        lp += n;
+        int w0 = lo >>> 6;
+        int words = (hi >>> 6) - w0 + 1;
+        for (int x = 0; x < cols; x++) {
+            System.arraycopy(undoLongs, lp, colBits, x * colWords + w0, words);
+            lp += words;
+        }
+        hash = undoLongs[lp];
+
+        int ip = intStart;
+        System.arraycopy(undoInts, ip, rowFill, lo, n);
+        ip += n;
+        System.arraycopy(undoInts, ip, heights, 0, cols);
+        ip += cols;
+        System.arraycopy(undoInts, ip, columnHoles, 0, cols);
+        ip += cols;
+        holes = undoInts[ip++];
+        clearedCount = undoInts[ip++];
+        System.arraycopy(undoInts, ip, clearedRows, 0, clearedCount);
+
+        System.arraycopy(undoBytes, byteStart, colors, lo * cols, n * cols);
+
+        undoLongCount = longStart;
+        undoIntCount = intStart;
+        undoByteCount = byteStart;
+        markDirty(lo, hi);
+        version++;
+    }
+
+    // 取り消せる手の数
+    public int getUndoDepth() {
+        return undoDepth;
+    }
+
+    // 取り消しの記録を捨てる（盤面を丸ごと書き換えたとき）
+    private void dropUndo() {
+        undoDepth = 0;
+        undoLongCount = 0;
+        undoIntCount = 0;
+        undoByteCount = 0;
+    }
+
+    // 行が消えない手：ミノの向きと位置、置く列の高さ・穴、置く行の鍵とハッシュだけ
+    private void savePieceFrame(int type, int rotation, int baseX, int baseY) {
+        int width = Tetromino.width(type, rotation);
+        int height = Tetromino.height(type, rotation);
+        if (undoLongCount + 1 + height > undoLongs.length) {
+            undoLongs = Arrays.copyOf(undoLongs, undoLongs.length * 2 + height);
+        }
+        if (undoIntCount + 6 + width * 2 > undoInts.length) {
+            undoInts = Arrays.copyOf(undoInts, undoInts.length * 2 + width * 2);
+        }
+        if ((undoDepth + 1) * 4 > undoFrames.length) {
+            undoFrames = Arrays.copyOf(undoFrames, undoFrames.length * 2);
+        }
+        int f = undoDepth++ * 4;
+        undoFrames[f] = undoLongCount;
+        undoFrames[f + 1] = undoIntCount;
+        undoFrames[f + 2] = undoByteCount;
+        undoFrames[f + 3] = -1;
+
+        undoLongs[undoLongCount++] = hash;
+        for (int r = 0; r < height; r++) {
+            int y = baseY + r;
+            undoLongs[undoLongCount++] = y >= 0 && y < rows ? rowKeys[y] : 0L;
+        }
+        int[] u = undoInts;
+        int p = undoIntCount;
+        u[p++] = type;
+        u[p++] = rotation;
+        u[p++] = baseX;
+        u[p++] = baseY;
+        u[p++] = holes;
+        u[p++] = clearedCount;
+        for (int c = 0; c < width; c++) {
+            u[p++] = heights[baseX + c];
+            u[p++] = columnHoles[baseX + c];
+        }
+        undoIntCount = p;
+    }
+
+    private void popPiece(int longStart, int intStart) {
+        int[] u = undoInts;
+        int p = intStart;
+        int type = u[p++];
+        int rotation = u[p++];
+        int baseX = u[p++];
+        int baseY = u[p++];
+        holes = u[p++];
+        clearedCount = u[p++];
+        int width = Tetromino.width(type, rotation);
+        for (int c = 0; c < width; c++) {
+            heights[baseX + c] = u[p++];
+            columnHoles[baseX + c] = u[p++];
+        }
+        int[] masks = Tetromino.masks(type, rotation);
+        int height = Tetromino.height(type, rotation);
+        for (int r = 0; r < height; r++) {
+            int y = baseY + r;
+            if (y < 0 || y >= rows) continue;
+            for (int bits = masks[r]; bits != 0; bits &= bits - 1) {
+                int x = baseX + Integer.numberOfTrailingZeros(bits);
+                colors[y * cols + x] = 0;
+                rowBits[y * rowWords + (x >>> 6)] &= ~(1L << x);
+                colBits[x * colWords + (y >>> 6)] &= ~(1L << y);
+                rowFill[y]--;
+            }
+            rowKeys[y] = undoLongs[longStart + 1 + r];
+            dirty[y >>> 6] |= 1L << y;
+        }
+        hash = undoLongs[longStart];
+        undoLongCount = longStart;
+        undoIntCount = intStart;
+        version++;
+    }
+
+    private void saveFrame(int lo, int hi) {
+        int n = hi - lo + 1;
+        int w0 = lo >>> 6;
+        int words = (hi >>> 6) - w0 + 1;
+        int needLongs = n * rowWords + n + cols * words + 1;
+        int needInts = n + cols * 2 + 2 + clearedCount;
+        int needBytes = n * cols;
+        if (undoLongCount + needLongs > undoLongs.length) {
+            undoLongs = Arrays.copyOf(undoLongs, Math.max(undoLongs.length * 2, undoLongCount + needLongs));
+        }
+        if (undoIntCount + needInts > undoInts.length) {
+            undoInts = Arrays.copyOf(undoInts, Math.max(undoInts.length * 2, undoIntCount + needInts));
+        }
+        if (undoByteCount + needBytes > undoBytes.length) {
+            undoBytes = Arrays.copyOf(undoBytes, Math.max(undoBytes.length * 2, undoByteCount + needBytes));
+        }
+        if ((undoDepth + 1) * 4 > undoFrames.length) {
+            undoFrames = Arrays.copyOf(undoFrames, undoFrames.length * 2);
+        }
+        int f = undoDepth++ * 4;
+        undoFrames[f] = undoLongCount;
+        undoFrames[f + 1] = undoIntCount;
+        undoFrames[f + 2] = undoByteCount;
+        undoFrames[f + 3] = lo << 16 | hi;
+
+        System.arraycopy(rowBits, lo * rowWords, undoLongs, undoLongCount, n * rowWords);
+        undoLongCount += n * rowWords;
+        System.arraycopy(rowKeys, lo, undoLongs, undoLongCount, n);
+        undoLongCount += n;
+        for (int x = 0; x < cols; x++) {
+            System.arraycopy(colBits, x * colWords + w0, undoLongs, undoLongCount, words);
+            undoLongCount += words;
+        }
+        undoLongs[undoLongCount++] = hash;
+
+        System.arraycopy(rowFill, lo, undoInts, undoIntCount, n);
+        undoIntCount += n;
+        System.arraycopy(heights, 0, undoInts, undoIntCount, cols);
+        undoIntCount += cols;
+        System.arraycopy(columnHoles, 0, undoInts, undoIntCount, cols);
+        undoIntCount += cols;
+        undoInts[undoIntCount++] = holes;
+        undoInts[undoIntCount++] = clearedCount;
+        System.arraycopy(clearedRows, 0, undoInts, undoIntCount, clearedCount);
+        undoIntCount += clearedCount;
+
+        System.arraycopy(colors, lo * cols, undoBytes, undoByteCount, n * cols);
+        undoByteCount += n * cols;
+    }
+
+    // ---- 読み取り専用の写し ----
+
+    // 1 行ぶんの中身（作ったら書き換えない、写し同士で共有する）
+    static final class Row {
+        final long[] bits;
+        final byte[] colors;
+        final int fill;
+        final long key;
+
+        Row(long[] bits, byte[] colors, int fill, long key) {
+            this.bits = bits;
+            this.colors = colors;
+            this.fill = fill;
+            this.key = key;
+        }
+    }
+
+    // 盤面の読み取り専用の写し。前の写しから変わっていない行は同じ Row を指すので、
+    // 写すのは変わった行と列ごとの集計だけ（空の行は 1 つの Row を使い回す）
+    public static final class Snapshot {
+        final int cols;
+        final int rows;
+        final Row[] rowData;
+        final long[] colBits;
+        final int[] heights;
+        final int[] columnHoles;
+        final int holes;
+        final long hash;
+
+        Snapshot(GameBoard b, Row[] rowData) {
+            this.cols = b.cols;
+            this.rows = b.rows;
+            this.rowData = rowData;
+            this.colBits = b.colBits.clone();
+            this.heights = b.heights.clone();
+            this.columnHoles = b.columnHoles.clone();
+            this.holes = b.holes;
+            this.hash = b.hash;
+        }
+
+        public int getCols() {
+            return cols;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+    }
+
+    // 今の盤面の写し（前回の写し・restore から変わっていなければ行は全部共有）
+    public Snapshot snapshot() {
+        Row[] data;
+        if (shared == null) {
+            data = new Row[rows];
+            markDirty(0, rows - 1);
+        } else {
+            data = shared.clone();
+        }
+        for (int w = 0; w < dirty.length; w++) {
+            long bits = dirty[w];
+            while (bits != 0) {
+                int y = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (rowFill[y] == 0) {
+                    data[y] = EMPTY_ROW;
+                } else {
+                    data[y] = new Row(Arrays.copyOfRange(rowBits, y * rowWords, (y + 1) * rowWords),
+                            Arrays.copyOfRange(colors, y * cols, (y + 1) * cols), rowFill[y], rowKeys[y]);
+                }
+            }
+            dirty[w] = 0L;
+        }
+        shared = data;
+        return new Snapshot(this, data);
+    }
+
+    // 写しの状態に戻す（共有している行のうち、その後書き換えていない行は写し直さない）
+    public void restore(Snapshot snap) {
+        if (snap.cols != cols || snap.rows != rows) {
+            throw new IllegalArgumentException("盤面の大きさが違います: " + snap.cols + "x" + snap.rows);
+        }
+        for (int y = 0; y < rows; y++) {
+            Row row = snap.rowData[y];
+            if (shared != null && shared[y] == row && (dirty[y >>> 6] & (1L << y)) == 0) continue;
+            if (row.bits == null) {
+                Arrays.fill(rowBits, y * rowWords, (y + 1) * rowWords, 0L);
+                Arrays.fill(colors, y * cols, (y + 1) * cols, (byte) 0);
+            } else {
+                System.arraycopy(row.bits, 0, rowBits, y * rowWords, rowWords);
+                System.arraycopy(row.colors, 0, colors, y * cols, cols);
+            }
+            rowFill[y] = row.fill;
+            rowKeys[y] = row.key;
+        }
+        System.arraycopy(snap.colBits, 0, colBits, 0, colBits.length);
+        System.arraycopy(snap.heights, 0, heights, 0, cols);
+        System.arraycopy(snap.columnHoles, 0, columnHoles, 0, cols);
+        holes = snap.holes;
+        hash = snap.hash;
+        clearedCount = 0;
+        dropUndo();
+        shared = snap.rowData;
+        Arrays.fill(dirty, 0L);
+        version++;
+    }
+
+    private static final Row EMPTY_ROW = new Row(null, null, 0, 0L);
+
+    private void markDirty(int from, int to) {
+        for (int y = from; y <= to; y++) {
+            dirty[y >>> 6] |= 1L << y;
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // 埋まっているマスが同じ盤面は同じ値（同じ盤面に別の手順で来たかを見分ける）
+    public long getHash() {
+        return hash;
+    }
+
+    // 列 x が埋まっていることの鍵（表を持たずにその場で作るので、盤面の幅によらない）
+    private static long cellKey(int x) {
+        return mix64((x + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    // 行 y の中身が key であることの鍵（空の行は 0）
+    private static long rowKey(int y, long key) {
+        return key == 0L ? 0L : mix64(key + (y + 1) * 0xC2B2AE3D27D4EB4FL);
+    }
+
+    // 64 ビットをよく混ぜる（SplitMix64 の仕上げ）
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // いちばん上のブロックがある行（空なら rows）
+    public int getTopRow() {
+        int top = rows;
+        for (int x = 0; x < cols; x++) {
+            top = Math.min(top, rows - heights[x]);
+        }
+        return top;
+    }
+
+    // 盤面を空にしてから、行 top より下に cells（パレット番号、[(y - top) * cols + x]）を入れる（セーブの読み込み用）
+    void loadCells(int top, byte[] cells) {
+        if (top < 0 || top > rows || cells.length != (rows - top) * cols) {
+            throw new IllegalArgumentException("盤面のデータの大きさが違います");
+        }
+        for (byte c : cells) {
+            if (c < 0 || c > Tetromino.COLORS.length) throw new IllegalArgumentException("パレットにない色です: " + c);
+        }
+        clear();
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != 0) fill(i % cols, top + i / cols, cells[i]);
+        }
+    }
+
+    // 列の高さ（床からいちばん上のブロックまで、空なら 0）
+    public int getColumnHeight(int x) {
+        return heights[x];
+    }
+
+    public int getRowFill(int y) {
+        return rowFill[y];
+    }
+
+    // 盤面全体の穴の数
+    public int getHoles() {
+        return holes;
+    }
+
+    // 直前の clearLines で消えた行数
+    public int getClearedCount() {
+        return clearedCount;
+    }
+
+    // 直前の clearLines で消えた行（消える前の行番号、下から順）
+    public int getClearedRow(int i) {
+        if (i < 0 || i >= clearedCount) throw new IndexOutOfBoundsException(i);
+        return clearedRows[i];
+    }
+}
@@ -0,0 +1,10 @@
+package tetris;
+
+// ゲームが参照する時計（シミュレーションでは ManualClock に差し替える）
+@FunctionalInterface
+public interface GameClock {
+
+    GameClock SYSTEM = System::currentTimeMillis;
+
+    long millis();
+}
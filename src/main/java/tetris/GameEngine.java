@@ -0,0 +1,448 @@
+package tetris;
+
+// ゲームのルール本体（Swing / サウンドには依存しない）
+// tick() を重力 1 段ぶんとして外から呼び、時刻は注入した GameClock から読む
+// 固定ステップで回すときは TICK_MS ごとに step() を呼ぶ（落下間隔ぶん溜まったら tick() する）
+public class GameEngine {
+
+    public static final int GAME_DURATION_SEC = 180;
+
+    static final long LOCK_DELAY_MS = 500L;
+    static final long MAX_LOCK_MS = 5000L;
+
+    static final int PREVIEW_DEPTH = 5;
+
+    static final int INITIAL_DELAY = 500;
+    static final int SOFT_DROP_DELAY = 50;
+
+    // 固定ステップ 1 回の長さ（落下間隔はすべてこの倍数）
+    public static final int TICK_MS = 10;
+
+    // 効果音・画面切替などはこれで外に知らせる
+    public interface Listener {
+        default void linesCleared(int lines) {}
+
+        default void gameOver() {}
+
+        default void finished() {}
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {};
+
+    final GameClock clock;
+    final PieceGenerator generator;
+    private Listener listener = NO_LISTENER;
+
+    final GameBoard board;
+    // ミノを出す列（盤面の真ん中）
+    final int spawnX;
+    Piece currentPiece;
+
+    boolean running = false;
+    boolean gameOver = false;
+    boolean finished = false;
+    boolean paused = false;
+    boolean softDropping = false;
+
+    boolean spinActive = false;
+    long spinStartTime;
+    long lastSpinTime;
+
+    int normalDelay = INITIAL_DELAY;
+    int gravityTicks = 0;
+
+    int score = 0;
+    int level = 1;
+    int linesClearedTotal = 0;
+    long piecesPlaced = 0L;
+
+    GameMode mode = GameMode.SPRINT_180;
+    long playStartTimeMs = 0L;
+    long elapsedMs = 0L;
+    int remainingSeconds = GAME_DURATION_SEC;
+
+    public GameEngine() {
+        this(GameClock.SYSTEM, System.nanoTime());
+    }
+
+    public GameEngine(GameClock clock, long seed) {
+        this(clock, new RandomPieceGenerator(seed, PREVIEW_DEPTH));
+    }
+
+    public GameEngine(GameClock clock, PieceGenerator generator) {
+        this(clock, generator, GameBoard.COLS, GameBoard.ROWS);
+    }
+
+    public GameEngine(GameClock clock, PieceGenerator generator, int cols, int rows) {
+        this.clock = clock;
+        this.generator = generator;
+        this.board = new GameBoard(cols, rows);
+        this.spawnX = spawnX(cols);
+    }
+
+    // 幅 cols の盤面でミノを出す列（4 マス幅の枠が真ん中に来る位置、10 列なら 3）
+    static int spawnX(int cols) {
+        return cols / 2 - 2;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener == null ? NO_LISTENER : listener;
+    }
+
+    // 次の reset() から有効
+    public void setMode(GameMode mode) {
+        this.mode = mode;
+    }
+
+    public GameMode getMode() {
+        return mode;
+    }
+
+    public void reseed(long seed) {
+        generator.reseed(seed);
+    }
+
+    // 盤面と得点を初期化して最初のミノを出す（まだ重力は動かない）
+    public void reset() {
+        board.clear();
+        score = 0;
+        level = 1;
+        linesClearedTotal = 0;
+        piecesPlaced = 0L;
+        normalDelay = INITIAL_DELAY;
+        gravityTicks = 0;
+        running = false;
+        gameOver = false;
+        finished = false;
+        paused = false;
+        softDropping = false;
+        remainingSeconds = mode.durationSec;
+        playStartTimeMs = 0L;
+        elapsedMs = 0L;
+
+        spawnPiece();
+    }
+
+    // 制限時間のカウントを始めてプレイ開始
+    public void begin() {
+        running = true;
+        finished = false;
+        playStartTimeMs = clock.millis();
+        elapsedMs = 0L;
+        remainingSeconds = mode.durationSec;
+    }
+
+    void spawnPiece() {
+        currentPiece = new Piece(generator.next(), spawnX, 0);
+        spinActive = false;
+
+        if (!currentPiece.canMove(board, currentPiece.x, currentPiece.y)) {
+            gameOver = true;
+            running = false;
+            listener.gameOver();
+        }
+    }
+
+    void fixPiece() {
+        board.placePiece(currentPiece.type, currentPiece.rotation, currentPiece.x, currentPiece.y);
+        piecesPlaced++;
+
+        int cleared = board.clearLines();
+        if (cleared > 0) {
+            listener.linesCleared(cleared);
+        }
+
+        score += cleared * 100;
+        linesClearedTotal += cleared;
+
+        int newLevel = 1 + linesClearedTotal / 10;
+        if (newLevel != level) {
+            level = newLevel;
+            normalDelay = Math.max(100, INITIAL_DELAY - (level - 1) * 40);
+        }
+
+        spawnPiece();
+    }
+
+    // 重力 1 段ぶん進める（固定までのロック遅延もここで判定）
+    public void tick() {
+        if (!running || paused) return;
+        if (updateTime()) return;
+
+        long now = clock.millis();
+        if (currentPiece.canMove(board, currentPiece.x, currentPiece.y + 1)) {
+            ++currentPiece.y;
+            spinActive = false;
+        } else if (!spinActive) {
+            spinActive = true;
+            spinStartTime = now;
+            lastSpinTime = now;
+        } else if (now - lastSpinTime > LOCK_DELAY_MS || now - spinStartTime > MAX_LOCK_MS) {
+            fixPiece();
+            spinActive = false;
+        }
+    }
+
+    // 固定ステップ 1 回ぶん進める（時計は呼び出し側が TICK_MS ずつ進める）
+    // 落下もロック遅延も tick() と同じ判定なので、ステップ数で決まる
+    public void step() {
+        if (!running || paused) return;
+        if (updateTime()) return;
+
+        if (++gravityTicks >= gravityDelay() / TICK_MS) {
+            gravityTicks = 0;
+            tick();
+        }
+    }
+
+    // 経過・残り時間を更新する（時間切れなら終了して true）
+    private boolean updateTime() {
+        elapsedMs = clock.millis() - playStartTimeMs;
+        if (!mode.isTimed()) return false;
+        remainingSeconds = (int) Math.max(0L, mode.durationSec - elapsedMs / 1000L);
+        if (remainingSeconds <= 0) {
+            finish();
+            return true;
+        }
+        return false;
+    }
+
+    private void finish() {
+        finished = true;
+        running = false;
+        paused = false;
+        softDropping = false;
+        listener.finished();
+    }
+
+    private boolean accepting() {
+        return running && !paused;
+    }
+
+    public boolean moveLeft() {
+        return shift(-1);
+    }
+
+    public boolean moveRight() {
+        return shift(1);
+    }
+
+    private boolean shift(int dx) {
+        if (!accepting()) return false;
+        boolean moved = currentPiece.canMove(board, currentPiece.x + dx, currentPiece.y);
+        if (moved) {
+            currentPiece.x += dx;
+        }
+        if (spinActive) lastSpinTime = clock.millis();
+        return moved;
+    }
+
+    // 1 段下げる（自動プレイがソフトドロップ 1 段ぶんの入力として使う、着地しても固定はしない）
+    public boolean moveDown() {
+        if (!accepting()) return false;
+        boolean moved = currentPiece.canMove(board, currentPiece.x, currentPiece.y + 1);
+        if (moved) {
+            ++currentPiece.y;
+            spinActive = false;
+        }
+        return moved;
+    }
+
+    public boolean rotate() {
+        if (!accepting()) return false;
+        boolean rotated = currentPiece.rotateWithKick(board, true);
+        if (rotated && spinActive) lastSpinTime = clock.millis();
+        return rotated;
+    }
+
+    public void hardDrop() {
+        if (!accepting()) return;
+        currentPiece.y = currentPiece.getGhostY(board);
+        fixPiece();
+    }
+
+    public void setSoftDropping(boolean softDropping) {
+        this.softDropping = softDropping;
+    }
+
+    public boolean togglePause() {
+        paused = !paused;
+        return paused;
+    }
+
+    // ある時点のゲーム全体（盤面・ミノ・先読みと乱数・得点・時間・ロック遅延）の読み取り専用の写し
+    // 盤面は GameBoard.Snapshot なので、続けて取っても変わった行しか写さない
+    // 時刻は同じ時計の値のまま持つ（別の時計で続けるときは呼び出し側でずらす）
+    public static final class Snapshot {
+        final GameBoard.Snapshot board;
+        final int pieceType;
+        final int pieceRotation;
+        final int pieceX;
+        final int pieceY;
+        final long[] generatorState;
+
+        final boolean running;
+        final boolean gameOver;
+        final boolean finished;
+        final boolean paused;
+        final boolean softDropping;
+
+        final boolean spinActive;
+        final long spinStartTime;
+        final long lastSpinTime;
+
+        final int normalDelay;
+        final int gravityTicks;
+
+        final int score;
+        final int level;
+        final int linesClearedTotal;
+        final long piecesPlaced;
+
+        final GameMode mode;
+        final long playStartTimeMs;
+        final long elapsedMs;
+        final int remainingSeconds;
+
+        Snapshot(GameEngine e) {
+            this.board = e.board.snapshot();
+            Piece p = e.currentPiece;
+            this.pieceType = p == null ? -1 : p.type;
+            this.pieceRotation = p == null ? 0 : p.rotation;
+            this.pieceX = p == null ? 0 : p.x;
+            this.pieceY = p == null ? 0 : p.y;
+            this.generatorState = e.generator.saveState();
+            this.running = e.running;
+            this.gameOver = e.gameOver;
+            this.finished = e.finished;
+            this.paused = e.paused;
+            this.softDropping = e.softDropping;
+            this.spinActive = e.spinActive;
+            this.spinStartTime = e.spinStartTime;
+            this.lastSpinTime = e.lastSpinTime;
+            this.normalDelay = e.normalDelay;
+            this.gravityTicks = e.gravityTicks;
+            this.score = e.score;
+            this.level = e.level;
+            this.linesClearedTotal = e.linesClearedTotal;
+            this.piecesPlaced = e.piecesPlaced;
+            this.mode = e.mode;
+            this.playStartTimeMs = e.playStartTimeMs;
+            this.elapsedMs = e.elapsedMs;
+            this.remainingSeconds = e.remainingSeconds;
+        }
+
+        public GameBoard.Snapshot getBoard() {
+            return board;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public long getPiecesPlaced() {
+            return piecesPlaced;
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    // 写しの時点に戻す（リスナーには何も知らせない）
+    public void restore(Snapshot snap) {
+        board.restore(snap.board);
+        generator.restoreState(snap.generatorState);
+        if (snap.pieceType < 0) {
+            currentPiece = null;
+        } else {
+            currentPiece = new Piece(snap.pieceType, snap.pieceX, snap.pieceY);
+            currentPiece.rotation = snap.pieceRotation;
+        }
+        running = snap.running;
+        gameOver = snap.gameOver;
+        finished = snap.finished;
+        paused = snap.paused;
+        softDropping = snap.softDropping;
+        spinActive = snap.spinActive;
+        spinStartTime = snap.spinStartTime;
+        lastSpinTime = snap.lastSpinTime;
+        normalDelay = snap.normalDelay;
+        gravityTicks = snap.gravityTicks;
+        score = snap.score;
+        level = snap.level;
+        linesClearedTotal = snap.linesClearedTotal;
+        piecesPlaced = snap.piecesPlaced;
+        mode = snap.mode;
+        playStartTimeMs = snap.playStartTimeMs;
+        elapsedMs = snap.elapsedMs;
+        remainingSeconds = snap.remainingSeconds;
+    }
+
+    // 次の tick までの間隔（ソフトドロップ中は短くなる）
+    public int gravityDelay() {
+        return softDropping ? SOFT_DROP_DELAY : normalDelay;
+    }
+
+    public GameBoard getBoard() {
+        return board;
+    }
+
+    public Piece getCurrentPiece() {
+        return currentPiece;
+    }
+
+    public int getNextType() {
+        return generator.peek(0);
+    }
+
+    // i 番目に出るミノ（0 = NEXT）
+    public int getPreview(int i) {
+        return generator.peek(i);
+    }
+
+    public int getPreviewDepth() {
+        return generator.previewDepth();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getLinesClearedTotal() {
+        return linesClearedTotal;
+    }
+
+    public long getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    public int getRemainingSeconds() {
+        return remainingSeconds;
+    }
+
+    // プレイ開始からの時間（終わった後はそのときの値のまま）
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+}
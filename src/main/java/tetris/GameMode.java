@@ -0,0 +1,26 @@
+package tetris;
+
+// 遊び方の種類（スコアはモードごとに別のランキングになる）
+public enum GameMode {
+    // 制限時間 180 秒で点数を競う
+    SPRINT_180("SPRINT", GameEngine.GAME_DURATION_SEC),
+    // 時間制限なし（積み上がるまで）
+    MARATHON("MARATHON", 0);
+
+    final String label;
+    // 制限時間（秒、0 なら無制限）
+    final int durationSec;
+
+    GameMode(String label, int durationSec) {
+        this.label = label;
+        this.durationSec = durationSec;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isTimed() {
+        return durationSec > 0;
+    }
+}
@@ -0,0 +1,219 @@
+package tetris;
+
+import java.awt.event.KeyEvent;
+
+// ゲーム操作の入力
+// キーの押下・解放を System.nanoTime() の時刻つきでリングバッファに積み（EDT から）、
+// シミュレーションのステップの頭で取り出してエンジンに反映する
+// 横移動は OS のキーリピートを使わず、ここで DAS（押しっぱなしでリピートが始まるまで）と
+// ARR（リピートの間隔）をステップ単位でかける。押しっぱなし中に届く OS のリピートは捨てる
+final class InputController {
+
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+    static final int SOFT_DROP = 2;
+    static final int ROTATE = 3;
+    static final int HARD_DROP = 4;
+    static final int ACTIONS = 5;
+
+    static final int DEFAULT_DAS_MS = 170;
+    static final int DEFAULT_ARR_MS = 50;
+
+    private static final int CAPACITY = 256;
+    private static final int RELEASED = 1 << 8;
+
+    // キーに対応する操作（なければ -1）
+    static int actionOf(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:
+                return LEFT;
+            case KeyEvent.VK_RIGHT:
+                return RIGHT;
+            case KeyEvent.VK_DOWN:
+                return SOFT_DROP;
+            case KeyEvent.VK_SPACE:
+                return ROTATE;
+            case KeyEvent.VK_UP:
+                return HARD_DROP;
+            default:
+                return -1;
+        }
+    }
+
+    private final int dasMs;
+    private final int arrMs;
+
+    // 1 スレッドが積んで 1 スレッドが取り出すリング（通し番号で管理）
+    private final long[] times = new long[CAPACITY];
+    private final int[] events = new int[CAPACITY];
+    private volatile long written;
+    private volatile long read;
+
+    // 以下は取り出す側のスレッドだけが触る
+    private final boolean[] held = new boolean[ACTIONS];
+    private int direction;
+    private int chargeMs;
+    private int repeatMs;
+    // まだ画面に出ていない入力のうち一番古いものの時刻（なければ 0）
+    private long pendingSince;
+    private final FrameStats latency = new FrameStats("input");
+    // 反映した入力をリプレイに書く（なければ null）
+    private ReplayWriter recorder;
+
+    InputController(int dasMs, int arrMs) {
+        this.dasMs = dasMs;
+        this.arrMs = arrMs;
+    }
+
+    InputController() {
+        this(DEFAULT_DAS_MS, DEFAULT_ARR_MS);
+    }
+
+    int dasMs() {
+        return dasMs;
+    }
+
+    int arrMs() {
+        return arrMs;
+    }
+
+    // EDT から：押した・離した（あふれたら捨てる）
+    boolean press(int action, long nanos) {
+        return push(action, nanos);
+    }
+
+    boolean release(int action, long nanos) {
+        return push(action | RELEASED, nanos);
+    }
+
+    private boolean push(int event, long nanos) {
+        long w = written;
+        if (w - read == CAPACITY) return false;
+        int i = (int) w & (CAPACITY - 1);
+        times[i] = nanos;
+        events[i] = event;
+        written = w + 1;
+        return true;
+    }
+
+    // ステップの頭で 1 回：溜まった入力を反映し、押しっぱなしの横移動をリピートする
+    void update(GameEngine engine) {
+        long r = read;
+        long w = written;
+        for (; r < w; r++) {
+            int i = (int) r & (CAPACITY - 1);
+            int event = events[i];
+            int action = event & ~RELEASED;
+            if ((event & RELEASED) != 0) {
+                if (recorder != null) recorder.record(action | Replay.RELEASE);
+                onRelease(engine, action);
+            } else if (!held[action]) {
+                if (recorder != null) recorder.record(action);
+                onPress(engine, action, times[i]);
+            }
+        }
+        read = r;
+
+        if (direction != 0) {
+            repeat(engine);
+        }
+    }
+
+    private void onPress(GameEngine engine, int action, long nanos) {
+        held[action] = true;
+        if (pendingSince == 0L) pendingSince = nanos;
+
+        switch (action) {
+            case LEFT:
+            case RIGHT:
+                // 後から押した方向を優先し、溜めはやり直す
+                direction = action == LEFT ? -1 : 1;
+                chargeMs = 0;
+                repeatMs = 0;
+                shift(engine);
+                break;
+            case SOFT_DROP:
+                engine.setSoftDropping(true);
+                break;
+            case ROTATE:
+                engine.rotate();
+                break;
+            case HARD_DROP:
+                engine.hardDrop();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onRelease(GameEngine engine, int action) {
+        held[action] = false;
+        if (action == LEFT || action == RIGHT) {
+            // まだ反対側を押していればそちらへ（溜めはやり直し）
+            direction = held[LEFT] ? -1 : held[RIGHT] ? 1 : 0;
+            chargeMs = 0;
+            repeatMs = 0;
+        } else if (action == SOFT_DROP) {
+            engine.setSoftDropping(false);
+        }
+    }
+
+    private void repeat(GameEngine engine) {
+        boolean first = false;
+        if (chargeMs < dasMs) {
+            chargeMs += GameEngine.TICK_MS;
+            if (chargeMs < dasMs) return;
+            first = true;
+        }
+        // ARR 0 は壁まで一気に
+        if (arrMs == 0) {
+            while (shift(engine)) {
+                // 動けなくなるまで
+            }
+            return;
+        }
+        // 溜まった瞬間に 1 回、あとは ARR ごと
+        if (first) {
+            shift(engine);
+            return;
+        }
+        repeatMs += GameEngine.TICK_MS;
+        while (repeatMs >= arrMs) {
+            repeatMs -= arrMs;
+            shift(engine);
+        }
+    }
+
+    private boolean shift(GameEngine engine) {
+        return direction < 0 ? engine.moveLeft() : engine.moveRight();
+    }
+
+    // 押しっぱなしの状態も含めて捨てる（リスタート時、遅れの記録もやり直す）
+    void clear() {
+        read = written;
+        for (int i = 0; i < ACTIONS; i++) {
+            held[i] = false;
+        }
+        direction = 0;
+        chargeMs = 0;
+        repeatMs = 0;
+        pendingSince = 0L;
+        latency.clear();
+    }
+
+    void setRecorder(ReplayWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    // 画面に出した時刻を知らせる（反映済みの入力から表示までの遅れを記録する）
+    void displayed(long nanos) {
+        if (pendingSince != 0L) {
+            latency.add(nanos - pendingSince);
+            pendingSince = 0L;
+        }
+    }
+
+    FrameStats latency() {
+        return latency;
+    }
+}
@@ -0,0 +1,51 @@
+package tetris;
+
+import java.util.Arrays;
+
+// ランキング 1 つぶんの並び（点数の降順、同点なら先に記録した方が上）
+// 記録そのものは ScoreIndex が持ち、ここには long のキーだけを昇順に並べる
+// キーは (Integer.MAX_VALUE - score) << 32 | id なので、キーの昇順がそのまま順位になる（score は 0 以上）
+final class Leaderboard {
+
+    private long[] keys = new long[16];
+    private int size;
+
+    static long key(int score, int id) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | id;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // rank 位（0 始まり）の記録の id
+    int id(int rank) {
+        return (int) keys[rank];
+    }
+
+    // 並びを保ったまま差し込む（二分探索＋ずらし）
+    void add(int score, int id) {
+        long key = key(score, id);
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        if (pos >= 0) return;
+        pos = -pos - 1;
+        grow();
+        System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+        keys[pos] = key;
+        size++;
+    }
+
+    // 読み込み時はまとめて足してから sort() する
+    void append(int score, int id) {
+        grow();
+        keys[size++] = key(score, id);
+    }
+
+    void sort() {
+        Arrays.sort(keys, 0, size);
+    }
+
+    private void grow() {
+        if (size == keys.length) keys = Arrays.copyOf(keys, keys.length * 2);
+    }
+}
@@ -1,14 +1,58 @@
 package tetris;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Arrays;
 import javax.swing.*;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] argv) {
+        // --stats：ゲームの終わりにフレーム間隔・入力遅延の集計を表示する（ほかの指定より前に置く）
+        boolean stats = argv.length > 0 && argv[0].equals("--stats");
+        if (stats) System.setProperty(FrameStats.PROPERTY, "true");
+        String[] args = stats ? Arrays.copyOfRange(argv, 1, argv.length) : argv;
+
+        // --board 列x行：盤面の大きさ（省略時は 10x20）
+        int[] size = {GameBoard.COLS, GameBoard.ROWS};
+        boolean sized = args.length > 1 && args[0].equals("--board");
+        if (sized) {
+            size = GameBoard.parseSize(args[1]);
+        }
+
+        // スコアの読み込みは裏で始めておく
+        ScoreManager.start();
+
+        // --active：専用スレッドで描画する固定ステップ版（盤面は 10x20 のみ、セーブがあれば続きから）
+        if (args.length > 0 && args[0].equals("--active")) {
+            SaveGame save = SaveGame.takeDefault(TetrisPanel.GENERATOR, new int[] {GameBoard.COLS, GameBoard.ROWS});
+            SwingUtilities.invokeLater(() -> ActiveGame.open(save));
+            return;
+        }
+
+        // --replay ファイル [倍速]：記録したゲームを画面で再生
+        if (args.length > 1 && args[0].equals("--replay")) {
+            int speed = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+            SwingUtilities.invokeLater(() -> ReplayViewer.open(args[1], speed));
+            return;
+        }
+
+        // 前回ウィンドウを閉じたときのゲームがあれば続きから（--board で別の大きさを選んだときは使わない）
+        SaveGame save = SaveGame.takeDefault(TetrisPanel.GENERATOR, sized ? size : null);
+        int cols = save != null ? save.cols : size[0];
+        int rows = save != null ? save.rows : size[1];
+        SaveGame resume = save;
+
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("Tetris");
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-            TetrisPanel panel = new TetrisPanel();
+            TetrisPanel panel = new TetrisPanel(cols, rows);
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosing(WindowEvent e) {
+                    panel.suspend();
+                }
+            });
             frame.add(panel);
             frame.pack();
             frame.setLocationRelativeTo(null);
@@ -16,6 +60,7 @@ public class Main {
             frame.setVisible(true);
 
             panel.requestFocusInWindow();
+            if (resume != null) panel.resume(resume);
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package tetris;
+
+// 明示的に進める時計（ヘッドレス実行用）
+public class ManualClock implements GameClock {
+
+    private long now;
+
+    public ManualClock() {
+        this(0L);
+    }
+
+    public ManualClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    public void advance(long ms) {
+        now += ms;
+    }
+
+    public void set(long millis) {
+        now = millis;
+    }
+}
@@ -0,0 +1,203 @@
+package tetris;
+
+import java.util.Arrays;
+
+// 今のミノを左右移動・回転・1 段下げ・ハードドロップで動かして、どこに置けるかを幅優先で全部調べる
+// 張り出しの下へ潜り込ませる置き方や、下まで下げてから回す置き方も見つかる
+//
+// 状態 (x, y, 向き) は int 1 つに詰め、訪れた印はビット集合で持って使い回す
+// 配列は盤面の大きさぶん最初に確保するだけで、search() ごとにメモリを確保しない
+// （前回の印は訪れた状態の一覧から消すので、盤面全体を消し直さない）
+//
+// 入力は InputController の操作番号で返す。回転はエンジンと同じく「右回転、だめなら左回転」の 1 入力、
+// SOFT_DROP は 1 段下げる入力として数え、最後は必ず HARD_DROP
+// 向きが違っても同じマスを埋める置き場所（I・S・Z の 180 度など）は 1 つにまとめる
+public final class MoveGenerator {
+
+    // 状態の数の上限（状態 1 つに配列で約 30 バイト使い、AutoPlayer はスレッドごとに 1 つ持つ）
+    static final int MAX_STATES = 1 << 20;
+
+    final int cols;
+    final int rows;
+
+    // 状態の番号 = (向き * rows + y) * cols + x
+    private final long[] visited;
+    private final long[] locked;
+
+    // 訪れた順（幅優先のキュー、訪れた状態の一覧も兼ねる）
+    private final int[] queue;
+    private int visitedCount;
+
+    // 状態ごとの 1 つ前の状態・そこへ来た入力・入力の数（訪れた状態のぶんだけ意味がある）
+    private final int[] parent;
+    private final byte[] via;
+    private final int[] depth;
+
+    // 置き場所（着地した状態）と、その印の番号（向きをまとめたもの）、そこへハードドロップした状態
+    private final int[] locks;
+    private final int[] lockMarks;
+    private final int[] lockFrom;
+    private int lockCount;
+
+    public MoveGenerator(int cols, int rows) {
+        if (!supports(cols, rows)) {
+            throw new IllegalArgumentException("盤面が大きすぎて置き場所を探せません: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        int states = Tetromino.ROTATIONS * rows * cols;
+        this.visited = new long[(states + 63) >>> 6];
+        this.locked = new long[(states + 63) >>> 6];
+        this.queue = new int[states];
+        this.parent = new int[states];
+        this.via = new byte[states];
+        this.depth = new int[states];
+        this.locks = new int[states];
+        this.lockMarks = new int[states];
+        this.lockFrom = new int[states];
+    }
+
+    public MoveGenerator(GameBoard board) {
+        this(board.getCols(), board.getRows());
+    }
+
+    // この大きさの盤面で置き場所を探せるか
+    public static boolean supports(int cols, int rows) {
+        return cols > 0 && rows > 0 && (long) Tetromino.ROTATIONS * rows * cols <= MAX_STATES;
+    }
+
+    // 置き場所を int 1 つに詰める（向き << 30 | y << 15 | x、盤面の大きさは 15 ビットまで）
+    // 向きが 2・3 だと負の数になるので、取り出すときは符号なしでずらす
+    public static int pack(int x, int y, int rotation) {
+        return rotation << 30 | y << 15 | x;
+    }
+
+    public static int xOf(int packed) {
+        return packed & 0x7FFF;
+    }
+
+    public static int yOf(int packed) {
+        return (packed >>> 15) & 0x7FFF;
+    }
+
+    public static int rotationOf(int packed) {
+        return packed >>> 30;
+    }
+
+    // (x0, y0, rot0) にある type のミノから届く置き場所をすべて探し、その数を返す
+    // 置き場所は入力の少ない順に並ぶ
+    public int search(GameBoard board, int type, int rot0, int x0, int y0) {
+        if (board.getCols() != cols || board.getRows() != rows) {
+            throw new IllegalArgumentException("盤面の大きさが違います: " + board.getCols() + "x" + board.getRows());
+        }
+        reset();
+        if (y0 < 0 || !fits(board, type, rot0, x0, y0)) return 0;
+
+        int start = index(x0, y0, rot0);
+        mark(visited, start);
+        parent[start] = -1;
+        depth[start] = 0;
+        queue[visitedCount++] = start;
+
+        for (int head = 0; head < visitedCount; head++) {
+            int s = queue[head];
+            int x = s % cols;
+            int y = (s / cols) % rows;
+            int rot = s / (cols * rows);
+
+            // ここからハードドロップした着地点（同じマスを埋める向き違いは 1 つにまとめる）
+            int landY = y + board.dropDistance(type, rot, x, y);
+            int same = index(x, landY, Tetromino.canonicalRotation(type, rot));
+            if (!isMarked(locked, same)) {
+                mark(locked, same);
+                locks[lockCount] = index(x, landY, rot);
+                lockMarks[lockCount] = same;
+                lockFrom[lockCount] = s;
+                lockCount++;
+            }
+
+            if (fits(board, type, rot, x - 1, y)) visit(s, index(x - 1, y, rot), InputController.LEFT);
+            if (fits(board, type, rot, x + 1, y)) visit(s, index(x + 1, y, rot), InputController.RIGHT);
+            if (fits(board, type, rot, x, y + 1)) visit(s, index(x, y + 1, rot), InputController.SOFT_DROP);
+
+            int r = (rot + 1) & 3;
+            if (!fits(board, type, r, x, y)) r = (rot + 3) & 3;
+            if (fits(board, type, r, x, y)) visit(s, index(x, y, r), InputController.ROTATE);
+        }
+        return lockCount;
+    }
+
+    public int getLockCount() {
+        return lockCount;
+    }
+
+    // 置き場所の数・入力の数（ハードドロップを除く）の上限（状態の数）
+    public int capacity() {
+        return queue.length;
+    }
+
+    // i 番目の置き場所（pack した値）
+    public int lock(int i) {
+        int l = locks[i];
+        return pack(l % cols, (l / cols) % rows, l / (cols * rows));
+    }
+
+    // i 番目の置き場所までの入力の数（ハードドロップを含む）
+    public int inputCount(int i) {
+        return depth[lockFrom[i]] + 1;
+    }
+
+    // i 番目の置き場所までのいちばん短い入力の並びを out に書き、その数を返す
+    public int inputs(int i, int[] out) {
+        int s = lockFrom[i];
+        int n = depth[s] + 1;
+        out[n - 1] = InputController.HARD_DROP;
+        for (int k = n - 2; k >= 0; k--) {
+            out[k] = via[s];
+            s = parent[s];
+        }
+        return n;
+    }
+
+    private void visit(int from, int s, int input) {
+        if (isMarked(visited, s)) return;
+        mark(visited, s);
+        parent[s] = from;
+        via[s] = (byte) input;
+        depth[s] = depth[from] + 1;
+        queue[visitedCount++] = s;
+    }
+
+    // 前回の印を、訪れた状態・置き場所の一覧を使って消す
+    private void reset() {
+        if (visitedCount > visited.length) {
+            Arrays.fill(visited, 0L);
+            Arrays.fill(locked, 0L);
+        } else {
+            for (int i = 0; i < visitedCount; i++) {
+                visited[queue[i] >>> 6] = 0L;
+            }
+            for (int i = 0; i < lockCount; i++) {
+                locked[lockMarks[i] >>> 6] = 0L;
+            }
+        }
+        visitedCount = 0;
+        lockCount = 0;
+    }
+
+    private int index(int x, int y, int rot) {
+        return (rot * rows + y) * cols + x;
+    }
+
+    private static boolean fits(GameBoard board, int type, int rot, int x, int y) {
+        return board.canPlace(Tetromino.masks(type, rot), Tetromino.height(type, rot), Tetromino.width(type, rot), x, y);
+    }
+
+    private static void mark(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    private static boolean isMarked(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+}
@@ -4,36 +4,58 @@ import java.awt.Color;
 
 public class Piece {
 
-    int[][] shape;
-    Color color;
+    // 形状は Tetromino の回転テーブルを参照するだけ（コピーしない）
+    final int type;
+    int rotation;
     int x;
     int y;
 
-    public Piece(int[][] shape, Color color, int startX, int startY) {
-        // shape をコピーしておく（安全のため）
-        int h = shape.length;
-        int w = shape[0].length;
-        this.shape = new int[h][w];
-        for (int r = 0; r < h; r++) {
-            System.arraycopy(shape[r], 0, this.shape[r], 0, w);
-        }
-        this.color = color;
+    // getGhostY のキャッシュ
+    private GameBoard ghostBoard;
+    private long ghostVersion;
+    private int ghostRotation = -1;
+    private int ghostX;
+    private int ghostFromY;
+    private int ghostY;
+
+    public Piece(int type, int startX, int startY) {
+        this.type = type;
+        this.rotation = 0;
         this.x = startX;
         this.y = startY;
     }
 
+    public int getType() {
+        return type;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public Color getColor() {
+        return Tetromino.COLORS[type];
+    }
+
+    public int width() {
+        return Tetromino.width(type, rotation);
+    }
+
+    public int height() {
+        return Tetromino.height(type, rotation);
+    }
+
+    // i 番目（0..3）のブロックの相対位置
+    public int cellX(int i) {
+        return Tetromino.cellX(type, rotation, i);
+    }
+
+    public int cellY(int i) {
+        return Tetromino.cellY(type, rotation, i);
+    }
+
     public boolean canMove(GameBoard board, int newX, int newY) {
-        for (int r = 0; r < shape.length; r++) {
-            for (int c = 0; c < shape[0].length; c++) {
-                if (shape[r][c] == 1) {
-                    int nx = newX + c;
-                    int ny = newY + r;
-                    if (nx < 0 || nx >= GameBoard.COLS || ny >= GameBoard.ROWS) return false;
-                    if (ny >= 0 && board.isOccupied(nx, ny)) return false;
-                }
-            }
-        }
-        return true;
+        return canMove(board, newX, newY, rotation);
     }
 
     public void moveIfPossible(GameBoard board, int dx, int dy) {
@@ -43,63 +65,40 @@ public class Piece {
         }
     }
 
-    private int[][] rotateRight(int[][] src) {
-        int h = src.length, w = src[0].length;
-        int[][] dst = new int[w][h];
-        for (int r = 0; r < h; r++) {
-            for (int c = 0; c < w; c++) {
-                dst[c][h - 1 - r] = src[r][c];
-            }
-        }
-        return dst;
-    }
-
-    private int[][] rotateLeft(int[][] src) {
-        int[][] t = src;
-        for (int i = 0; i < 3; i++) {
-            t = rotateRight(t);
-        }
-        return t;
-    }
-
     public boolean rotateWithKick(GameBoard board, boolean preferRight) {
-        int[][] r = rotateRight(shape);
-        if (canMove(board, x, y)) {
-            // no-op
-        }
         // まず右回転
+        int r = (rotation + 1) & 3;
         if (canMove(board, x, y, r)) {
-            shape = r;
+            rotation = r;
             return true;
         }
         // 右回転が無理なら左回転を試す
-        int[][] l = rotateLeft(shape);
+        int l = (rotation + 3) & 3;
         if (canMove(board, x, y, l)) {
-            shape = l;
+            rotation = l;
             return true;
         }
         return false;
     }
 
-    private boolean canMove(GameBoard board, int newX, int newY, int[][] testShape) {
-        for (int r = 0; r < testShape.length; r++) {
-            for (int c = 0; c < testShape[0].length; c++) {
-                if (testShape[r][c] == 1) {
-                    int nx = newX + c;
-                    int ny = newY + r;
-                    if (nx < 0 || nx >= GameBoard.COLS || ny >= GameBoard.ROWS) return false;
-                    if (ny >= 0 && board.isOccupied(nx, ny)) return false;
-                }
-            }
-        }
-        return true;
+    private boolean canMove(GameBoard board, int newX, int newY, int rot) {
+        return board.canPlace(Tetromino.masks(type, rot),
+                Tetromino.height(type, rot), Tetromino.width(type, rot), newX, newY);
     }
 
+    // 着地位置（盤面・向き・x・盤面の版が同じ間はキャッシュを返す）
+    // 落ちる途中の y はキャッシュしたときの y から着地位置までの間にあるので、その範囲なら使い回せる
     public int getGhostY(GameBoard board) {
-        int gy = y;
-        while (canMove(board, x, gy + 1)) {
-            gy++;
+        if (board == ghostBoard && board.getVersion() == ghostVersion && rotation == ghostRotation
+                && x == ghostX && y >= ghostFromY && y <= ghostY) {
+            return ghostY;
         }
-        return gy;
+        ghostBoard = board;
+        ghostVersion = board.getVersion();
+        ghostRotation = rotation;
+        ghostX = x;
+        ghostFromY = y;
+        ghostY = y + board.dropDistance(type, rotation, x, y);
+        return ghostY;
     }
-}
\ No newline at end of file
+}
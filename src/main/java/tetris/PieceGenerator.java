@@ -0,0 +1,40 @@
+package tetris;
+
+// 出すミノの種類を決める（先読みキューつき、シードで再現できる）
+public interface PieceGenerator {
+
+    // キューの先頭を取り出し、末尾に 1 つ補充する
+    int next();
+
+    // i 番目に出るミノ（0 = 次に出るミノ）、i < previewDepth()
+    int peek(int i);
+
+    int previewDepth();
+
+    // シードを入れ直してキューを作り直す
+    void reseed(long seed);
+
+    // 乱数・先読みキュー・袋の中身などをまとめて写す（restoreState で同じ続きから出せる）
+    long[] saveState();
+
+    void restoreState(long[] saved);
+
+    // create で作れる名前か
+    static boolean isKnown(String kind) {
+        return kind.equals("bag") || kind.equals("random") || FixedSequenceGenerator.parse(kind) != null;
+    }
+
+    // 名前で作る（"bag" / "random" / "fixed:" + ミノの名前の並び、例 "fixed:IOTSZJL"）
+    static PieceGenerator create(String kind, long seed, int previewDepth) {
+        switch (kind) {
+            case "bag":
+                return new SevenBagGenerator(seed, previewDepth);
+            case "random":
+                return new RandomPieceGenerator(seed, previewDepth);
+            default:
+                int[] sequence = FixedSequenceGenerator.parse(kind);
+                if (sequence == null) throw new IllegalArgumentException("ミノの出し方が不明です: " + kind);
+                return new FixedSequenceGenerator(sequence, seed, previewDepth);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package tetris;
+
+// 先読みキュー（int のリングバッファ）と乱数を持つ共通部分
+// 乱数は SplitMix64（状態が long 1 つなので保存・複製しやすい）
+public abstract class QueuedPieceGenerator implements PieceGenerator {
+
+    private final int[] queue;
+    private final int mask;
+    private final int depth;
+    private int head;
+
+    private long state;
+
+    protected QueuedPieceGenerator(int previewDepth) {
+        if (previewDepth < 1) throw new IllegalArgumentException("先読みの数は 1 以上にしてください: " + previewDepth);
+        int capacity = Integer.highestOneBit(previewDepth);
+        if (capacity < previewDepth) capacity <<= 1;
+        this.queue = new int[capacity];
+        this.mask = capacity - 1;
+        this.depth = previewDepth;
+    }
+
+    // 次に補充する 1 つを決める
+    protected abstract int generate();
+
+    // シードを入れ直したときの内部状態（袋の中身など）の初期化
+    protected abstract void restart(long seed);
+
+    @Override
+    public final int next() {
+        int type = queue[head];
+        queue[(head + depth) & mask] = generate();
+        head = (head + 1) & mask;
+        return type;
+    }
+
+    @Override
+    public final int peek(int i) {
+        if (i < 0 || i >= depth) throw new IndexOutOfBoundsException(i);
+        return queue[(head + i) & mask];
+    }
+
+    @Override
+    public final int previewDepth() {
+        return depth;
+    }
+
+    @Override
+    public final void reseed(long seed) {
+        state = seed;
+        restart(seed);
+        head = 0;
+        for (int i = 0; i < depth; i++) {
+            queue[i] = generate();
+        }
+    }
+
+    // 保存の並び: 乱数の状態, 先読みの数, キュー（先頭から順に）, サブクラスのぶん
+    @Override
+    public final long[] saveState() {
+        long[] saved = new long[2 + depth + extraStateSize()];
+        saved[0] = state;
+        saved[1] = depth;
+        for (int i = 0; i < depth; i++) {
+            saved[2 + i] = queue[(head + i) & mask];
+        }
+        saveExtra(saved, 2 + depth);
+        return saved;
+    }
+
+    @Override
+    public final void restoreState(long[] saved) {
+        if (saved.length != 2 + depth + extraStateSize() || saved[1] != depth) {
+            throw new IllegalArgumentException("ミノの出し方の状態が合いません（先読み " + depth + "）");
+        }
+        for (int i = 0; i < depth; i++) {
+            long type = saved[2 + i];
+            if (type < 0 || type >= Tetromino.COUNT) throw new IllegalArgumentException("ミノの種類が不正です: " + type);
+        }
+        state = saved[0];
+        head = 0;
+        for (int i = 0; i < depth; i++) {
+            queue[i] = (int) saved[2 + i];
+        }
+        restoreExtra(saved, 2 + depth);
+    }
+
+    // サブクラスが保存に足す long の数と、その書き出し・読み込み
+    protected int extraStateSize() {
+        return 0;
+    }
+
+    protected void saveExtra(long[] out, int offset) {}
+
+    protected void restoreExtra(long[] in, int offset) {}
+
+    protected final int nextInt(int bound) {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+}
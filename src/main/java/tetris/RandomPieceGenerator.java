@@ -0,0 +1,18 @@
+package tetris;
+
+// 毎回 7 種から等確率で選ぶ（元の nextPiece と同じ方式）
+public class RandomPieceGenerator extends QueuedPieceGenerator {
+
+    public RandomPieceGenerator(long seed, int previewDepth) {
+        super(previewDepth);
+        reseed(seed);
+    }
+
+    @Override
+    protected int generate() {
+        return nextInt(Tetromino.COUNT);
+    }
+
+    @Override
+    protected void restart(long seed) {}
+}
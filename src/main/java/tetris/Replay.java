@@ -0,0 +1,144 @@
+package tetris;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// 記録したゲーム 1 つぶん（ReplayWriter が書いたファイルを読んだもの）
+//
+// 形式: マジック(int) 版(byte) ミノの出し方(UTF) シード(long) モード(byte) DAS(short) ARR(short) 列数(short) 行数(short)
+//       以降は (前の入力からのステップ数: varint, 入力: 1 バイト) の並び
+//       最後は END のあとに 結果（点数・ライン・置いた数: varint、盤面のチェックサム: int）
+// 入力は InputController の操作番号（離したときは RELEASE を足す）、PAUSE、AUTO（自動プレイの 1 手）
+// 同じシード・同じステップに同じ入力を入れればエンジンは同じ盤面になる
+// 版 1 は盤面の大きさを持たない（標準の 10x20 として読む）
+public final class Replay {
+
+    static final int MAGIC = 0x5452504C; // "TRPL"
+    static final int VERSION = 2;
+
+    static final int RELEASE = 0x20;
+    static final int PAUSE = 0x40;
+    static final int AUTO = 0x41;
+    static final int END = 0xFF;
+
+    final String generator;
+    final long seed;
+    final GameMode mode;
+    final int dasMs;
+    final int arrMs;
+    final int cols;
+    final int rows;
+
+    // 入力ごとのステップ（通し番号）と中身
+    final long[] steps;
+    final byte[] codes;
+    final int count;
+
+    // 記録を終えたときのステップ数と結果
+    final long endStep;
+    final int score;
+    final int lines;
+    final long pieces;
+    final int boardChecksum;
+
+    private Replay(String generator, long seed, GameMode mode, int dasMs, int arrMs, int cols, int rows,
+            long[] steps, byte[] codes, int count, long endStep, int score, int lines, long pieces, int boardChecksum) {
+        this.generator = generator;
+        this.seed = seed;
+        this.mode = mode;
+        this.dasMs = dasMs;
+        this.arrMs = arrMs;
+        this.cols = cols;
+        this.rows = rows;
+        this.steps = steps;
+        this.codes = codes;
+        this.count = count;
+        this.endStep = endStep;
+        this.score = score;
+        this.lines = lines;
+        this.pieces = pieces;
+        this.boardChecksum = boardChecksum;
+    }
+
+    public static Replay read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("リプレイのファイルではありません: " + path);
+            int version = in.readUnsignedByte();
+            if (version < 1 || version > VERSION) throw new IOException("リプレイの版が違います: " + version);
+            String generator = in.readUTF();
+            if (!PieceGenerator.isKnown(generator)) throw new IOException("ミノの出し方が不明です: " + generator);
+            long seed = in.readLong();
+            GameMode[] modes = GameMode.values();
+            int m = in.readUnsignedByte();
+            if (m >= modes.length) throw new IOException("モードが違います: " + m);
+            GameMode mode = modes[m];
+            int das = in.readUnsignedShort();
+            int arr = in.readUnsignedShort();
+            int cols = version >= 2 ? in.readUnsignedShort() : GameBoard.COLS;
+            int rows = version >= 2 ? in.readUnsignedShort() : GameBoard.ROWS;
+            // 壊れたファイルは ReplayPlayer を作る前にここで弾く（ReplayRunner では broken に数える）
+            if (cols < Tetromino.CELLS || rows < Tetromino.CELLS || cols > GameBoard.MAX_SIZE || rows > GameBoard.MAX_SIZE) {
+                throw new IOException("盤面の大きさが違います: " + cols + "x" + rows);
+            }
+
+            long[] steps = new long[256];
+            byte[] codes = new byte[256];
+            int n = 0;
+            long step = 0L;
+            while (true) {
+                step += readVarLong(in);
+                int code = in.readUnsignedByte();
+                if (code == END) break;
+                if (n == steps.length) {
+                    steps = Arrays.copyOf(steps, n * 2);
+                    codes = Arrays.copyOf(codes, n * 2);
+                }
+                steps[n] = step;
+                codes[n] = (byte) code;
+                n++;
+            }
+            int score = (int) readVarLong(in);
+            int lines = (int) readVarLong(in);
+            long pieces = readVarLong(in);
+            int checksum = in.readInt();
+            return new Replay(generator, seed, mode, das, arr, cols, rows, steps, codes, n, step, score, lines, pieces, checksum);
+        } catch (EOFException ex) {
+            // 書いている途中で落ちたものは END がない
+            throw new IOException("リプレイが途中で切れています: " + path, ex);
+        }
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("varint が長すぎます");
+    }
+
+    // 盤面の中身（色つき）のチェックサム
+    static int boardChecksum(GameBoard board) {
+        int h = 0x811C9DC5;
+        for (byte c : board.colors) {
+            h = (h ^ c) * 0x01000193;
+        }
+        return h;
+    }
+
+    public long getEndStep() {
+        return endStep;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
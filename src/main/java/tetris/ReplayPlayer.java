@@ -0,0 +1,69 @@
+package tetris;
+
+// リプレイを 1 ステップずつ再生する（画面なしでも画面つきでも同じ手順）
+// 遊んでいるときと同じく、ステップの頭で入力を InputController に入れ、
+// 自動プレイ → engine.step() → 時計を TICK_MS 進める、の順に回す
+final class ReplayPlayer {
+
+    final Replay replay;
+    final ManualClock clock = new ManualClock();
+    final GameEngine engine;
+    private final InputController input;
+    private final AutoPlayer auto = new AutoPlayer(AutoPlayer.Weights.defaults(), 1, null);
+    private int next;
+    private long step;
+
+    ReplayPlayer(Replay replay) {
+        this.replay = replay;
+        this.engine = new GameEngine(clock, PieceGenerator.create(replay.generator, replay.seed, GameEngine.PREVIEW_DEPTH),
+                replay.cols, replay.rows);
+        this.input = new InputController(replay.dasMs, replay.arrMs);
+        engine.setMode(replay.mode);
+        engine.reset();
+        engine.begin();
+    }
+
+    boolean isDone() {
+        return step >= replay.endStep;
+    }
+
+    long getStep() {
+        return step;
+    }
+
+    void step() {
+        boolean autoMove = false;
+        while (next < replay.count && replay.steps[next] == step) {
+            int code = replay.codes[next++] & 0xFF;
+            if (code == Replay.PAUSE) {
+                engine.togglePause();
+            } else if (code == Replay.AUTO) {
+                autoMove = true;
+            } else if ((code & Replay.RELEASE) != 0) {
+                input.release(code & ~Replay.RELEASE, 0L);
+            } else {
+                input.press(code, 0L);
+            }
+        }
+        input.update(engine);
+        if (autoMove) auto.play(engine);
+        engine.step();
+        clock.advance(GameEngine.TICK_MS);
+        step++;
+    }
+
+    // 最後まで回す
+    void runToEnd() {
+        while (!isDone()) {
+            step();
+        }
+    }
+
+    // 記録した結果と同じになったか
+    boolean matches() {
+        return engine.getScore() == replay.score
+                && engine.getLinesClearedTotal() == replay.lines
+                && engine.getPiecesPlaced() == replay.pieces
+                && Replay.boardChecksum(engine.getBoard()) == replay.boardChecksum;
+    }
+}
@@ -0,0 +1,66 @@
+package tetris;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// リプレイを画面なしで最高速で再生し、記録した結果と同じになるか確かめる
+// 使い方: java tetris.ReplayRunner [ファイルかディレクトリ ...]（省略時は ~/.tetris_replays）
+public final class ReplayRunner {
+
+    private ReplayRunner() {}
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (args.length == 0) {
+            args = new String[] {Paths.get(System.getProperty("user.home"), ".tetris_replays").toString()};
+        }
+        for (String arg : args) {
+            Path p = Paths.get(arg);
+            if (Files.isDirectory(p)) {
+                try (Stream<Path> s = Files.list(p)) {
+                    s.filter(f -> f.toString().endsWith(".rpl")).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(p);
+            }
+        }
+
+        int ok = 0;
+        int mismatch = 0;
+        int broken = 0;
+        long steps = 0L;
+        long start = System.nanoTime();
+        for (Path file : files) {
+            Replay replay;
+            try {
+                replay = Replay.read(file);
+            } catch (IOException ex) {
+                System.out.println("skip " + file + ": " + ex.getMessage());
+                broken++;
+                continue;
+            }
+            ReplayPlayer player = new ReplayPlayer(replay);
+            player.runToEnd();
+            steps += player.getStep();
+            if (player.matches()) {
+                ok++;
+            } else {
+                mismatch++;
+                System.out.printf(Locale.ROOT, "MISMATCH %s: score %d/%d lines %d/%d pieces %d/%d%n", file,
+                        player.engine.getScore(), replay.score,
+                        player.engine.getLinesClearedTotal(), replay.lines,
+                        player.engine.getPiecesPlaced(), replay.pieces);
+            }
+        }
+        double sec = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "replays=%d ok=%d mismatch=%d broken=%d time=%.3fs steps/sec=%.0f%n",
+                files.size(), ok, mismatch, broken, sec, steps / Math.max(sec, 1e-9));
+        if (mismatch > 0) System.exit(1);
+    }
+}
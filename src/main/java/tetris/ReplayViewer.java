@@ -0,0 +1,136 @@
+package tetris;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.nio.file.Paths;
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+// リプレイを画面で再生する（java tetris.Main --replay ファイル [倍速]）
+// ↑↓ で 1～64 倍速、スペースで一時停止
+public class ReplayViewer extends JPanel implements ActionListener, KeyListener {
+
+    static final int MAX_SPEED = 64;
+    private static final long STEP_NS = GameEngine.TICK_MS * 1_000_000L;
+    private static final long MAX_CATCH_UP_NS = 250_000_000L;
+
+    private final ReplayPlayer player;
+    private final BoardRenderer renderer;
+    private final Timer timer = new Timer(GameEngine.TICK_MS, this);
+    private int speed;
+    private boolean stopped;
+    private String result; // 最後まで再生したら記録と合ったかを HUD に出す
+    private long lastNanos;
+    private long acc;
+
+    public ReplayViewer(Replay replay, int speed) {
+        this.player = new ReplayPlayer(replay);
+        this.renderer = new BoardRenderer(player.engine.getBoard());
+        this.speed = Math.max(1, Math.min(MAX_SPEED, speed));
+        setPreferredSize(renderer.preferredSize());
+        setBackground(Color.BLACK);
+        setFocusable(true);
+        addKeyListener(this);
+    }
+
+    public static void open(String file, int speed) {
+        Replay replay;
+        try {
+            replay = Replay.read(Paths.get(file));
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, ex.getMessage(), "Replay", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JFrame frame = new JFrame("Tetris Replay");
+        ReplayViewer viewer = new ReplayViewer(replay, speed);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.add(viewer);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setResizable(false);
+        frame.setVisible(true);
+        viewer.requestFocusInWindow();
+        viewer.lastNanos = System.nanoTime();
+        viewer.timer.start();
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        long now = System.nanoTime();
+        if (!stopped) {
+            // 経過時間 × 倍速ぶんのステップを回す
+            acc = Math.min(acc + (now - lastNanos) * speed, MAX_CATCH_UP_NS * speed);
+            while (acc >= STEP_NS && !player.isDone()) {
+                acc -= STEP_NS;
+                player.step();
+            }
+            if (player.isDone()) {
+                timer.stop();
+                result = player.matches() ? "記録と一致" : "記録と不一致";
+            }
+        }
+        lastNanos = now;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        GameEngine engine = player.engine;
+        GameBoard board = engine.getBoard();
+        Piece piece = engine.getCurrentPiece();
+
+        renderer.drawBoard(g, board);
+        if (engine.isRunning() && piece != null) {
+            int ghostY = piece.getGhostY(board);
+            if (ghostY != piece.y) {
+                renderer.drawPiece(g, piece, ghostY, true);
+            }
+        }
+        if (!engine.isGameOver() && piece != null) {
+            renderer.drawPiece(g, piece, piece.y, false);
+        }
+        renderer.drawHud(g, engine, false, false);
+
+        g.setColor(Color.YELLOW);
+        g.drawString("REPLAY x" + speed + (stopped ? " (停止)" : ""), renderer.hudX(), 240);
+        if (result != null) {
+            g.setColor(player.matches() ? Color.GREEN : Color.RED);
+            g.drawString(result, renderer.hudX(), 260);
+        }
+
+        if (engine.isGameOver()) {
+            renderer.drawCenteredText(g, "GAME OVER", Color.RED);
+        } else if (engine.isFinished()) {
+            renderer.drawCenteredText(g, "Finish", Color.WHITE);
+        } else if (engine.isPaused()) {
+            renderer.drawCenteredText(g, "HOLD", Color.WHITE);
+        }
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        int key = e.getKeyCode();
+        if (key == KeyEvent.VK_UP) {
+            speed = Math.min(MAX_SPEED, speed * 2);
+        } else if (key == KeyEvent.VK_DOWN) {
+            speed = Math.max(1, speed / 2);
+        } else if (key == KeyEvent.VK_SPACE) {
+            stopped = !stopped;
+        }
+        repaint();
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {}
+
+    @Override
+    public void keyTyped(KeyEvent e) {}
+}
@@ -0,0 +1,105 @@
+package tetris;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// 遊んでいるゲームのリプレイを少しずつ書き出す（形式は Replay を参照）
+// 入力を record() で積み、ステップを終えるたびに nextStep() を呼ぶ
+// 書けなくなったらそれ以降は黙って捨てる（ゲームは止めない）
+final class ReplayWriter {
+
+    private static final String DIR_NAME = ".tetris_replays";
+
+    private final DataOutputStream out;
+    private final Path path;
+    private long step;
+    private long lastStep;
+    private boolean failed;
+
+    private ReplayWriter(Path path, OutputStream out) {
+        this.path = path;
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    // ~/.tetris_replays/replay-<時刻>.rpl に書き始める（作れなければ null）
+    static ReplayWriter start(String generator, long seed, GameMode mode, GameBoard board, int dasMs, int arrMs) {
+        try {
+            Path dir = Paths.get(System.getProperty("user.home"), DIR_NAME);
+            Files.createDirectories(dir);
+            Path path = dir.resolve("replay-" + System.currentTimeMillis() + ".rpl");
+            ReplayWriter w = new ReplayWriter(path, Files.newOutputStream(path));
+            w.out.writeInt(Replay.MAGIC);
+            w.out.writeByte(Replay.VERSION);
+            w.out.writeUTF(generator);
+            w.out.writeLong(seed);
+            w.out.writeByte(mode.ordinal());
+            w.out.writeShort(dasMs);
+            w.out.writeShort(arrMs);
+            w.out.writeShort(board.getCols());
+            w.out.writeShort(board.getRows());
+            return w;
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    // 今のステップの入力として積む
+    void record(int code) {
+        if (failed) return;
+        try {
+            writeVarLong(out, step - lastStep);
+            out.writeByte(code);
+            lastStep = step;
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    void nextStep() {
+        step++;
+    }
+
+    // 結果を書いて閉じる（途中でやめたときもそこまでの結果を書く）
+    void finish(GameEngine engine) {
+        if (!failed) {
+            try {
+                writeVarLong(out, step - lastStep);
+                out.writeByte(Replay.END);
+                writeVarLong(out, engine.getScore());
+                writeVarLong(out, engine.getLinesClearedTotal());
+                writeVarLong(out, engine.getPiecesPlaced());
+                out.writeInt(Replay.boardChecksum(engine.getBoard()));
+            } catch (IOException ex) {
+                fail(ex);
+            }
+        }
+        try {
+            out.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void fail(IOException ex) {
+        ex.printStackTrace();
+        failed = true;
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0L) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,277 @@
+package tetris;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// 途中のゲームのセーブ（ウィンドウを閉じたときに書き、次に起動したときに続きから遊ぶ）
+// ByteBuffer 1 つに詰めて FileChannel で書き、読むときも 1 回で読んでから解く
+//
+// 形式（版 1）: マジック(int) 版(byte) ミノの出し方(長さ byte + ASCII) シード(long) モード(byte)
+//       列数(short) 行数(short) 状態(byte: 1 = 動いている, 2 = ポーズ, 4 = ソフトドロップ, 8 = ロック遅延中)
+//       ミノ(byte, 向き byte, x int, y int) 点数(int) レベル(int) ライン(int) 置いた数(long)
+//       落下間隔(int) 落下までのステップ(int) 開始からの ms(long) 残り秒(int)
+//       ロック遅延の開始・最後の操作からの ms(long, long) ミノの出し方の状態(short 個数 + long の並び)
+//       盤面（いちばん上のブロックの行 short、そこから下の色 byte の並び）、最後にここまでの CRC32(int)
+// 時刻は書いたときの時計からの差で持つので、読み込んだ側の時計がいくつでも同じ残り時間から続く
+final class SaveGame {
+
+    static final int MAGIC = 0x54534156; // "TSAV"
+    static final int VERSION = 1;
+
+    private static final String FILE_NAME = ".tetris_save.bin";
+
+    private static final int RUNNING = 1;
+    private static final int PAUSED = 2;
+    private static final int SOFT_DROPPING = 4;
+    private static final int SPIN_ACTIVE = 8;
+
+    private static final int MAX_GENERATOR_STATE = 1024;
+
+    final String generator;
+    final long seed;
+    final GameMode mode;
+    final int cols;
+    final int rows;
+    private final int flags;
+    private final int pieceType;
+    private final int pieceRotation;
+    private final int pieceX;
+    private final int pieceY;
+    final int score;
+    private final int level;
+    private final int lines;
+    private final long pieces;
+    private final int normalDelay;
+    private final int gravityTicks;
+    private final long elapsedMs;
+    private final int remainingSeconds;
+    private final long spinStartAgo;
+    private final long lastSpinAgo;
+    private final long[] generatorState;
+    private final int top;
+    private final byte[] cells;
+
+    private SaveGame(ByteBuffer buf) throws IOException {
+        if (buf.getInt() != MAGIC) throw new IOException("セーブのファイルではありません");
+        int version = buf.get() & 0xFF;
+        if (version != VERSION) throw new IOException("セーブの版が違います: " + version);
+        byte[] name = new byte[buf.get() & 0xFF];
+        buf.get(name);
+        this.generator = new String(name, StandardCharsets.US_ASCII);
+        this.seed = buf.getLong();
+        GameMode[] modes = GameMode.values();
+        int m = buf.get() & 0xFF;
+        if (m >= modes.length) throw new IOException("モードが違います: " + m);
+        this.mode = modes[m];
+        this.cols = buf.getShort();
+        this.rows = buf.getShort();
+        if (cols < Tetromino.CELLS || rows < Tetromino.CELLS) throw new IOException("盤面の大きさが違います: " + cols + "x" + rows);
+        this.flags = buf.get();
+        this.pieceType = buf.get();
+        this.pieceRotation = buf.get();
+        if (pieceType < 0 || pieceType >= Tetromino.COUNT || pieceRotation < 0 || pieceRotation >= Tetromino.ROTATIONS) {
+            throw new IOException("ミノが違います: " + pieceType + "/" + pieceRotation);
+        }
+        this.pieceX = buf.getInt();
+        this.pieceY = buf.getInt();
+        this.score = buf.getInt();
+        this.level = buf.getInt();
+        this.lines = buf.getInt();
+        this.pieces = buf.getLong();
+        this.normalDelay = buf.getInt();
+        this.gravityTicks = buf.getInt();
+        this.elapsedMs = buf.getLong();
+        this.remainingSeconds = buf.getInt();
+        this.spinStartAgo = buf.getLong();
+        this.lastSpinAgo = buf.getLong();
+        int n = buf.getShort();
+        if (n < 0 || n > MAX_GENERATOR_STATE) throw new IOException("ミノの出し方の状態が壊れています");
+        this.generatorState = new long[n];
+        buf.asLongBuffer().get(generatorState);
+        buf.position(buf.position() + n * Long.BYTES);
+        this.top = buf.getShort();
+        if (top < 0 || top > rows) throw new IOException("盤面が壊れています");
+        if ((long) (rows - top) * cols != buf.remaining()) throw new IOException("盤面が壊れています");
+        this.cells = new byte[(rows - top) * cols];
+        buf.get(cells);
+    }
+
+    static Path defaultPath() {
+        return Paths.get(System.getProperty("user.home"), FILE_NAME);
+    }
+
+    // engine の今の状態を書く（別のファイルに書いてから置き換えるので、途中で落ちても前のセーブは壊れない）
+    static void write(Path path, GameEngine engine, String generator, long seed) throws IOException {
+        GameBoard board = engine.getBoard();
+        Piece piece = engine.getCurrentPiece();
+        long[] state = engine.generator.saveState();
+        byte[] name = generator.getBytes(StandardCharsets.US_ASCII);
+        if (name.length > 0xFF) throw new IOException("ミノの出し方の名前が長すぎます: " + generator);
+        int top = board.getTopRow();
+        int cellCount = (board.getRows() - top) * board.getCols();
+        long now = engine.clock.millis();
+
+        ByteBuffer buf = ByteBuffer.allocate(4 + 1 + 1 + name.length + 8 + 1 + 2 + 2 + 1
+                + 1 + 1 + 4 + 4 + 4 + 4 + 4 + 8 + 4 + 4 + 8 + 4 + 8 + 8
+                + 2 + state.length * Long.BYTES + 2 + cellCount + 4);
+        buf.putInt(MAGIC);
+        buf.put((byte) VERSION);
+        buf.put((byte) name.length);
+        buf.put(name);
+        buf.putLong(seed);
+        buf.put((byte) engine.mode.ordinal());
+        buf.putShort((short) board.getCols());
+        buf.putShort((short) board.getRows());
+        buf.put((byte) ((engine.running ? RUNNING : 0) | (engine.paused ? PAUSED : 0)
+                | (engine.softDropping ? SOFT_DROPPING : 0) | (engine.spinActive ? SPIN_ACTIVE : 0)));
+        buf.put((byte) piece.type);
+        buf.put((byte) piece.rotation);
+        buf.putInt(piece.x);
+        buf.putInt(piece.y);
+        buf.putInt(engine.score);
+        buf.putInt(engine.level);
+        buf.putInt(engine.linesClearedTotal);
+        buf.putLong(engine.piecesPlaced);
+        buf.putInt(engine.normalDelay);
+        buf.putInt(engine.gravityTicks);
+        buf.putLong(now - engine.playStartTimeMs);
+        buf.putInt(engine.remainingSeconds);
+        buf.putLong(now - engine.spinStartTime);
+        buf.putLong(now - engine.lastSpinTime);
+        buf.putShort((short) state.length);
+        for (long v : state) {
+            buf.putLong(v);
+        }
+        buf.putShort((short) top);
+        buf.put(board.colors, top * board.getCols(), cellCount);
+        buf.putInt(crc(buf, buf.position()));
+        buf.flip();
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            channel.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ファイルを 1 回で読んで解く（なければ NoSuchFileException）
+    static SaveGame read(Path path) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4 + 1 + 4 || size > Integer.MAX_VALUE) throw new IOException("セーブの大きさが違います: " + size);
+            buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) throw new IOException("セーブが途中で切れています");
+            }
+        }
+        int end = buf.capacity() - 4;
+        if (crc(buf, end) != buf.getInt(end)) throw new IOException("セーブが壊れています（CRC が合いません）");
+        buf.flip().limit(end);
+        try {
+            SaveGame save = new SaveGame(buf);
+            if (buf.hasRemaining()) throw new IOException("セーブの後ろに余分なデータがあります");
+            return save;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new IOException("セーブが途中で切れています", ex);
+        }
+    }
+
+    // 既定の場所のセーブを読んで消す（続きは 1 回だけ。なければ・読めなければ null）
+    // generator で作ったものでないか、size（null なら何でもよい）と大きさが違うときは、理由を出して消さずに残す
+    static SaveGame takeDefault(String generator, int[] size) {
+        Path path = defaultPath();
+        try {
+            SaveGame save = read(path);
+            if (!save.generator.equals(generator)) {
+                System.err.println("ミノの出し方が違うので続きから始めません: " + save.generator);
+                return null;
+            }
+            if (size != null && (save.cols != size[0] || save.rows != size[1])) {
+                System.err.println("盤面の大きさが違うので続きから始めません: " + save.cols + "x" + save.rows);
+                return null;
+            }
+            Files.deleteIfExists(path);
+            return save;
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            System.err.println("セーブを読めませんでした: " + ex.getMessage());
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // 消せなくても次の書き込みで置き換わる
+            }
+            return null;
+        }
+    }
+
+    // 遊んでいる途中なら既定の場所に書き、そうでなければ前のセーブを消す
+    static void saveOrDiscard(GameEngine engine, String generator, long seed) {
+        Path path = defaultPath();
+        try {
+            if (engine.isRunning() && engine.getCurrentPiece() != null) {
+                write(path, engine, generator, seed);
+            } else {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // engine を書いたときの状態にする（盤面の大きさ・ミノの出し方は同じであること）
+    // 時刻は engine の時計の今から逆算する
+    void apply(GameEngine engine) {
+        GameBoard board = engine.getBoard();
+        if (board.getCols() != cols || board.getRows() != rows) {
+            throw new IllegalArgumentException("盤面の大きさが違います: " + cols + "x" + rows);
+        }
+        engine.generator.restoreState(generatorState);
+        board.loadCells(top, cells);
+        Piece piece = new Piece(pieceType, pieceX, pieceY);
+        piece.rotation = pieceRotation;
+        if (!piece.canMove(board, pieceX, pieceY)) throw new IllegalArgumentException("ミノが盤面と重なっています");
+
+        long now = engine.clock.millis();
+        engine.currentPiece = piece;
+        engine.mode = mode;
+        engine.running = (flags & RUNNING) != 0;
+        engine.gameOver = false;
+        engine.finished = false;
+        engine.paused = (flags & PAUSED) != 0;
+        engine.softDropping = (flags & SOFT_DROPPING) != 0;
+        engine.spinActive = (flags & SPIN_ACTIVE) != 0;
+        engine.spinStartTime = now - spinStartAgo;
+        engine.lastSpinTime = now - lastSpinAgo;
+        engine.normalDelay = normalDelay;
+        engine.gravityTicks = gravityTicks;
+        engine.score = score;
+        engine.level = level;
+        engine.linesClearedTotal = lines;
+        engine.piecesPlaced = pieces;
+        engine.playStartTimeMs = now - elapsedMs;
+        engine.elapsedMs = elapsedMs;
+        engine.remainingSeconds = remainingSeconds;
+    }
+
+    private static int crc(ByteBuffer buf, int end) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().position(0).limit(end));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,132 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 読み込んだスコア全件と、モード別・プレイヤー×モード別のランキング
+// 記録は列ごとの配列に id（記録順）で持ち、ScoreRecord は問い合わせのときだけ作る
+// 件数の上限はなく、何百万件でも 1 件あたり数十バイトで収まる
+final class ScoreIndex {
+
+    private static final GameMode[] MODES = GameMode.values();
+
+    private int count;
+    private long[] timestamps = new long[16];
+    private int[] scores = new int[16];
+    private int[] lines = new int[16];
+    private int[] levels = new int[16];
+    private int[] durations = new int[16];
+    private byte[] modes = new byte[16];
+    private int[] players = new int[16];
+
+    // プレイヤー名は番号にして持つ
+    private final List<String> playerNames = new ArrayList<>();
+    private final Map<String, Integer> playerIds = new HashMap<>();
+
+    private final EnumMap<GameMode, Leaderboard> byMode = new EnumMap<>(GameMode.class);
+    // キーは プレイヤー番号 * モード数 + モード
+    private final Map<Integer, Leaderboard> byPlayer = new HashMap<>();
+
+    ScoreIndex() {
+        for (GameMode mode : MODES) {
+            byMode.put(mode, new Leaderboard());
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    // 1 件足してランキングにも差し込む
+    void add(ScoreRecord r) {
+        int id = store(r);
+        byMode.get(r.getMode()).add(r.getScore(), id);
+        board(players[id], r.getMode()).add(r.getScore(), id);
+    }
+
+    // まとめて読み込むとき用（最後に sortAll() する）
+    void append(ScoreRecord r) {
+        int id = store(r);
+        byMode.get(r.getMode()).append(r.getScore(), id);
+        board(players[id], r.getMode()).append(r.getScore(), id);
+    }
+
+    void sortAll() {
+        for (Leaderboard b : byMode.values()) b.sort();
+        for (Leaderboard b : byPlayer.values()) b.sort();
+    }
+
+    private int store(ScoreRecord r) {
+        if (count == scores.length) {
+            int n = count * 2;
+            timestamps = Arrays.copyOf(timestamps, n);
+            scores = Arrays.copyOf(scores, n);
+            lines = Arrays.copyOf(lines, n);
+            levels = Arrays.copyOf(levels, n);
+            durations = Arrays.copyOf(durations, n);
+            modes = Arrays.copyOf(modes, n);
+            players = Arrays.copyOf(players, n);
+        }
+        int id = count++;
+        timestamps[id] = r.getTimestamp();
+        scores[id] = Math.max(0, r.getScore());
+        lines[id] = r.getLines();
+        levels[id] = r.getLevel();
+        durations[id] = r.getDurationMs();
+        modes[id] = (byte) r.getMode().ordinal();
+        players[id] = playerId(r.getPlayer());
+        return id;
+    }
+
+    private int playerId(String name) {
+        Integer id = playerIds.get(name);
+        if (id == null) {
+            id = playerNames.size();
+            playerNames.add(name);
+            playerIds.put(name, id);
+        }
+        return id;
+    }
+
+    private Leaderboard board(int player, GameMode mode) {
+        return byPlayer.computeIfAbsent(player * MODES.length + mode.ordinal(), k -> new Leaderboard());
+    }
+
+    // player が null ならモード全体、なければ空
+    private Leaderboard find(String player, GameMode mode) {
+        if (player == null) return byMode.get(mode);
+        Integer id = playerIds.get(player);
+        return id == null ? null : byPlayer.get(id * MODES.length + mode.ordinal());
+    }
+
+    ScoreRecord record(int id) {
+        return new ScoreRecord(playerNames.get(players[id]), timestamps[id], scores[id], lines[id],
+                levels[id], durations[id], MODES[modes[id]]);
+    }
+
+    int best(String player, GameMode mode) {
+        Leaderboard b = find(player, mode);
+        return b == null || b.size() == 0 ? 0 : scores[b.id(0)];
+    }
+
+    int count(String player, GameMode mode) {
+        Leaderboard b = find(player, mode);
+        return b == null ? 0 : b.size();
+    }
+
+    // offset 位から limit 件（0 始まり）
+    List<ScoreRecord> page(String player, GameMode mode, int offset, int limit) {
+        Leaderboard b = find(player, mode);
+        if (b == null || offset >= b.size() || limit <= 0) return List.of();
+        int end = (int) Math.min(b.size(), (long) offset + limit);
+        List<ScoreRecord> out = new ArrayList<>(end - offset);
+        for (int rank = Math.max(0, offset); rank < end; rank++) {
+            out.add(record(b.id(rank)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,225 @@
+package tetris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// スコアのバイナリ追記ログ
+// 先頭 HEADER_SIZE バイトがヘッダ（マジック・版・確定済みの長さ）で、ここだけメモリマップして書き換える
+// 追記はレコードを書いて force してから確定済みの長さを進めるので、途中で落ちても確定分は壊れない
+// （確定済みの長さより後ろに残った書きかけのバイトは読むときに無視する）
+//
+// レコード（版 2）: 長さ(int, 以降のバイト数) 時刻(long) 点数(int) ライン(int) レベル(int)
+//                  時間ms(int) モード(byte) 名前の長さ(short) 名前(UTF-8)
+// 版 1（点数の int だけ）のファイルは開くときに版 2 へ書き換える
+final class ScoreLog implements Closeable {
+
+    static final int MAGIC = 0x54534352; // "TSCR"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16;
+
+    private static final int COMMITTED_OFFSET = 8;
+    private static final int FIXED_SIZE = 8 + 4 + 4 + 4 + 4 + 1 + 2;
+    private static final int MAX_NAME_BYTES = 255;
+    private static final int V1_RECORD_SIZE = 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private long committed;
+
+    private ScoreLog(FileChannel channel, MappedByteBuffer header, long committed) {
+        this.channel = channel;
+        this.header = header;
+        this.committed = committed;
+    }
+
+    // なければ空のログを作る。版 1 のファイルの記録は legacyPlayer のものとして取り込む
+    static ScoreLog open(Path path, String legacyPlayer) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() < HEADER_SIZE;
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (fresh) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putLong(COMMITTED_OFFSET, 0L);
+                header.force();
+            } else if (header.getInt(0) != MAGIC) {
+                throw new IOException("スコアのファイルの形式が違います: " + path);
+            } else if (header.getInt(4) == 1) {
+                List<ScoreRecord> old = readV1(channel, header, legacyPlayer);
+                channel.close();
+                upgrade(path, old);
+                return open(path, legacyPlayer);
+            } else if (header.getInt(4) != VERSION) {
+                throw new IOException("スコアのファイルの版が違います: " + path);
+            }
+            return new ScoreLog(channel, header, committedLength(channel, header));
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    // ヘッダの確定済みの長さ。ファイルより長いことや負になることはないはずだが、壊れていたら 0～ファイルの長さに収める
+    // （負のまま追記するとヘッダの中や前に書いてしまう）
+    private static long committedLength(FileChannel channel, MappedByteBuffer header) throws IOException {
+        long committed = header.getLong(COMMITTED_OFFSET);
+        return Math.max(0L, Math.min(committed, channel.size() - HEADER_SIZE));
+    }
+
+    private static List<ScoreRecord> readV1(FileChannel channel, MappedByteBuffer header, String player) throws IOException {
+        long committed = committedLength(channel, header);
+        ByteBuffer buf = ByteBuffer.allocate((int) (committed - committed % V1_RECORD_SIZE));
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, HEADER_SIZE + buf.position()) < 0) break;
+        }
+        buf.flip();
+        List<ScoreRecord> records = new ArrayList<>();
+        while (buf.remaining() >= V1_RECORD_SIZE) {
+            records.add(new ScoreRecord(player, 0L, buf.getInt(), 0, 0, 0, GameMode.SPRINT_180));
+        }
+        return records;
+    }
+
+    // 新しい版で別のファイルに書いてから置き換える
+    private static void upgrade(Path path, List<ScoreRecord> records) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try (ScoreLog log = open(tmp, null)) {
+            log.append(records.toArray(new ScoreRecord[0]), records.size());
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 確定済みの記録を古い順に渡す
+    // 壊れたレコードがあれば、その手前までを渡して後ろは捨てる（確定済みの長さを戻すので、次の追記で上書きされる）
+    void forEach(Consumer<ScoreRecord> action) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+        buf.limit(0);
+        long pos = HEADER_SIZE;
+        long end = HEADER_SIZE + committed;
+        long good = 0L; // ここまでのレコードは読めた
+        while (true) {
+            while (buf.remaining() >= 4) {
+                int len = buf.getInt(buf.position());
+                if (len < FIXED_SIZE || len > FIXED_SIZE + MAX_NAME_BYTES) {
+                    discardFrom(good, "レコードの長さが不正です: " + len);
+                    return;
+                }
+                if (buf.remaining() < 4 + len) break;
+                buf.getInt();
+                ScoreRecord record;
+                try {
+                    record = decode(buf, len);
+                } catch (IOException ex) {
+                    discardFrom(good, ex.getMessage());
+                    return;
+                }
+                action.accept(record);
+                good += 4 + len;
+            }
+            if (pos >= end) {
+                if (buf.hasRemaining()) discardFrom(good, "途中で切れています");
+                return;
+            }
+            buf.compact();
+            buf.limit((int) Math.min(buf.capacity(), buf.position() + (end - pos)));
+            while (buf.hasRemaining()) {
+                int n = channel.read(buf, pos);
+                if (n < 0) {
+                    discardFrom(good, "途中で切れています");
+                    return;
+                }
+                pos += n;
+            }
+            buf.flip();
+        }
+    }
+
+    private void discardFrom(long good, String reason) {
+        System.err.println("スコアのファイルが壊れています（" + reason + "）: " + good + " バイト目から後ろを捨てます");
+        committed = good;
+        header.putLong(COMMITTED_OFFSET, committed);
+        header.force();
+    }
+
+    // len はレコードの長さ（先頭の int を除く）
+    private static ScoreRecord decode(ByteBuffer buf, int len) throws IOException {
+        long timestamp = buf.getLong();
+        int score = buf.getInt();
+        int lines = buf.getInt();
+        int level = buf.getInt();
+        int durationMs = buf.getInt();
+        GameMode[] modes = GameMode.values();
+        int mode = buf.get() & 0xFF;
+        if (mode >= modes.length) throw new IOException("モードが不正です: " + mode);
+        int nameLength = buf.getShort();
+        if (nameLength != len - FIXED_SIZE) throw new IOException("名前の長さが不正です: " + nameLength);
+        byte[] name = new byte[nameLength];
+        buf.get(name);
+        return new ScoreRecord(new String(name, StandardCharsets.UTF_8), timestamp, score, lines, level,
+                durationMs, modes[mode]);
+    }
+
+    private static byte[] nameBytes(ScoreRecord r) {
+        byte[] name = r.getPlayer().getBytes(StandardCharsets.UTF_8);
+        if (name.length <= MAX_NAME_BYTES) return name;
+        // 長すぎる名前は文字の途中で切れないように詰める
+        String s = r.getPlayer();
+        while (s.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            s = s.substring(0, s.offsetByCodePoints(s.length(), -1));
+        }
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // まとめて追記して確定する（force はまとめて 1 回）
+    void append(ScoreRecord[] records, int count) throws IOException {
+        if (count == 0) return;
+        byte[][] names = new byte[count][];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            names[i] = nameBytes(records[i]);
+            size += 4 + FIXED_SIZE + names[i].length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        for (int i = 0; i < count; i++) {
+            ScoreRecord r = records[i];
+            buf.putInt(FIXED_SIZE + names[i].length);
+            buf.putLong(r.getTimestamp());
+            buf.putInt(r.getScore());
+            buf.putInt(r.getLines());
+            buf.putInt(r.getLevel());
+            buf.putInt(r.getDurationMs());
+            buf.put((byte) r.getMode().ordinal());
+            buf.putShort((short) names[i].length);
+            buf.put(names[i]);
+        }
+        buf.flip();
+        long pos = HEADER_SIZE + committed;
+        while (buf.hasRemaining()) {
+            pos += channel.write(buf, pos);
+        }
+        channel.force(false);
+
+        committed += size;
+        header.putLong(COMMITTED_OFFSET, committed);
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -3,12 +3,40 @@ package tetris;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+// スコアの記録
+// 全件は ScoreLog（~/.tetris_scores.bin）に追記し、メモリの ScoreIndex でモード別・プレイヤー×モード別に並べて持つ
+// ファイルの読み書きはすべて書き込みスレッド（score-writer）が行う。addScore は積むだけで戻り、
+// 取得はメモリの索引を見るだけなので、画面側がディスクを待つことはない
+// 索引が変わると Listener に知らせる（書き込みスレッドから呼ばれる）
 public final class ScoreManager {
-    private static final String FILE_NAME = ".tetris_scores.txt";
+    private static final String FILE_NAME = ".tetris_scores.bin";
+    // 以前のテキスト形式（あれば最初に一度だけ取り込む）
+    private static final String LEGACY_FILE_NAME = ".tetris_scores.txt";
+
+    public interface Listener {
+        void scoresChanged();
+    }
+
+    private static final Object LOCK = new Object();
+    // 書き込み待ち（LOCK で守る）
+    private static final ArrayDeque<ScoreRecord> pending = new ArrayDeque<>();
+    private static boolean closing = false;
+    private static Thread writer;
+
+    // 索引の差し込み（書き込みスレッド）と問い合わせ（どこからでも）の間だけロックする
+    private static final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private static ScoreIndex index = new ScoreIndex();
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // 書き込みスレッドだけが触る
+    private static ScoreLog log;
 
     private ScoreManager() {}
 
@@ -16,58 +44,185 @@ public final class ScoreManager {
         return Paths.get(System.getProperty("user.home"), FILE_NAME);
     }
 
-    public static synchronized List<Integer> loadScores() {
-        Path path = scoreFile();
-        if (!Files.exists(path)) return new ArrayList<>();
+    private static Path legacyFile() {
+        return Paths.get(System.getProperty("user.home"), LEGACY_FILE_NAME);
+    }
 
-        try {
-            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-            List<Integer> scores = new ArrayList<>();
-            for (String line : lines) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                try {
-                    scores.add(Integer.parseInt(line));
-                } catch (NumberFormatException ignore) {}
-            }
-            scores.sort(Collections.reverseOrder());
-            return scores;
-        } catch (IOException e) {
-            return new ArrayList<>();
+    // 書き込みスレッドを起こして裏で読み込みを始める（何度呼んでもよい）
+    public static void start() {
+        synchronized (LOCK) {
+            if (writer != null) return;
+            writer = new Thread(ScoreManager::runWriter, "score-writer");
+            writer.setDaemon(true);
+            writer.start();
+            // 終了時は積んである分を書き切ってから
+            Runtime.getRuntime().addShutdownHook(new Thread(ScoreManager::flushOnExit, "score-flush"));
         }
     }
 
-    public static synchronized int getBestScore() {
-        List<Integer> scores = loadScores();
-        return scores.isEmpty() ? 0 : scores.get(0);
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
     }
 
-    public static synchronized void addScore(int score) {
-        List<Integer> scores = loadScores();
-        scores.add(score);
-        scores.sort(Collections.reverseOrder());
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
 
-        // 肥大化防止：上位100件まで保存
-        if (scores.size() > 100) {
-            scores = new ArrayList<>(scores.subList(0, 100));
+    // 積むだけで戻る（反映されると Listener に知らせる）
+    public static void addScore(ScoreRecord record) {
+        start();
+        synchronized (LOCK) {
+            pending.add(record);
+            LOCK.notifyAll();
         }
+    }
+
+    // モード全体の最高点
+    public static int getBestScore(GameMode mode) {
+        return getBestScore(null, mode);
+    }
+
+    // player が null ならモード全体
+    public static int getBestScore(String player, GameMode mode) {
+        start();
+        indexLock.readLock().lock();
+        try {
+            return index.best(player, mode);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    public static int getCount(String player, GameMode mode) {
+        start();
+        indexLock.readLock().lock();
+        try {
+            return index.count(player, mode);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    // 順位 offset から limit 件（0 始まり、player が null ならモード全体）
+    public static List<ScoreRecord> getTopScores(String player, GameMode mode, int offset, int limit) {
+        start();
+        indexLock.readLock().lock();
+        try {
+            return index.page(player, mode, offset, limit);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
 
-        saveScores(scores);
+    public static List<ScoreRecord> getTopScores(GameMode mode, int limit) {
+        return getTopScores(null, mode, 0, limit);
     }
 
-    public static synchronized List<Integer> getTopScores(int topN) {
-        List<Integer> scores = loadScores();
-        int n = Math.min(topN, scores.size());
-        return new ArrayList<>(scores.subList(0, n));
+    private static void runWriter() {
+        load();
+        notifyListeners();
+
+        ScoreRecord[] batch = new ScoreRecord[16];
+        while (true) {
+            int n = 0;
+            boolean stop;
+            synchronized (LOCK) {
+                while (pending.isEmpty() && !closing) {
+                    try {
+                        LOCK.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                stop = closing;
+                if (batch.length < pending.size()) batch = new ScoreRecord[pending.size()];
+                while (!pending.isEmpty()) {
+                    batch[n++] = pending.poll();
+                }
+            }
+
+            if (n > 0) {
+                // 先にメモリへ反映して知らせ、それから書く
+                indexLock.writeLock().lock();
+                try {
+                    for (int i = 0; i < n; i++) {
+                        index.add(batch[i]);
+                    }
+                } finally {
+                    indexLock.writeLock().unlock();
+                }
+                notifyListeners();
+                write(batch, n);
+            }
+            if (stop) return;
+        }
     }
 
-    private static void saveScores(List<Integer> scores) {
+    // 索引は手元で作ってから差し替える（読み込み中も問い合わせは待たせない）
+    private static void load() {
         Path path = scoreFile();
-        List<String> lines = new ArrayList<>();
-        for (Integer s : scores) lines.add(String.valueOf(s));
+        boolean migrate = !Files.exists(path) && Files.exists(legacyFile());
+        ScoreIndex loaded = new ScoreIndex();
+        try {
+            log = ScoreLog.open(path, ScoreRecord.defaultPlayer());
+            if (migrate) {
+                List<ScoreRecord> legacy = readLegacy(legacyFile());
+                log.append(legacy.toArray(new ScoreRecord[0]), legacy.size());
+            }
+            log.forEach(loaded::append);
+            loaded.sortAll();
+        } catch (IOException e) {
+            // 読み書きできなくても、このプレイ中のスコアはメモリにだけ残す
+            e.printStackTrace();
+            log = null;
+        }
+
+        indexLock.writeLock().lock();
         try {
-            Files.write(path, lines, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (IOException ignore) {}
+            index = loaded;
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private static void write(ScoreRecord[] records, int n) {
+        if (log == null) return;
+        try {
+            log.append(records, n);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void notifyListeners() {
+        for (Listener listener : listeners) {
+            listener.scoresChanged();
+        }
+    }
+
+    private static void flushOnExit() {
+        Thread w;
+        synchronized (LOCK) {
+            closing = true;
+            LOCK.notifyAll();
+            w = writer;
+        }
+        try {
+            w.join(2000L);
+        } catch (InterruptedException ignore) {}
+    }
+
+    // テキスト形式は点数だけなので、このユーザーの 180 秒モードの記録として取り込む
+    private static List<ScoreRecord> readLegacy(Path path) throws IOException {
+        String player = ScoreRecord.defaultPlayer();
+        List<ScoreRecord> scores = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            try {
+                scores.add(new ScoreRecord(player, 0L, Integer.parseInt(line), 0, 0, 0, GameMode.SPRINT_180));
+            } catch (NumberFormatException ignore) {}
+        }
+        return scores;
     }
 }
@@ -0,0 +1,62 @@
+package tetris;
+
+// スコア 1 件（だれが・いつ・どのモードで・どこまで）
+public final class ScoreRecord {
+
+    private final String player;
+    private final long timestamp;
+    private final int score;
+    private final int lines;
+    private final int level;
+    private final int durationMs;
+    private final GameMode mode;
+
+    public ScoreRecord(String player, long timestamp, int score, int lines, int level, int durationMs, GameMode mode) {
+        this.player = player;
+        this.timestamp = timestamp;
+        this.score = score;
+        this.lines = lines;
+        this.level = level;
+        this.durationMs = durationMs;
+        this.mode = mode;
+    }
+
+    // 終わったゲームの記録
+    public static ScoreRecord of(GameEngine engine, String player, long timestamp) {
+        return new ScoreRecord(player, timestamp, engine.getScore(), engine.getLinesClearedTotal(),
+                engine.getLevel(), (int) Math.min(Integer.MAX_VALUE, engine.getElapsedMs()), engine.getMode());
+    }
+
+    // OS のユーザー名（共有端末ではこれでプレイヤーを分ける）
+    public static String defaultPlayer() {
+        return System.getProperty("user.name", "player");
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getDurationMs() {
+        return durationMs;
+    }
+
+    public GameMode getMode() {
+        return mode;
+    }
+}
@@ -0,0 +1,61 @@
+package tetris;
+
+// 7 種を 1 つずつ入れた袋をシャッフルして順に出す（同じミノが偏らない）
+public class SevenBagGenerator extends QueuedPieceGenerator {
+
+    private final int[] bag = new int[Tetromino.COUNT];
+    private int bagIndex = Tetromino.COUNT;
+
+    public SevenBagGenerator(long seed, int previewDepth) {
+        super(previewDepth);
+        reseed(seed);
+    }
+
+    @Override
+    protected int generate() {
+        if (bagIndex == bag.length) {
+            for (int i = 0; i < bag.length; i++) {
+                bag[i] = i;
+            }
+            for (int i = bag.length - 1; i > 0; i--) {
+                int j = nextInt(i + 1);
+                int t = bag[i];
+                bag[i] = bag[j];
+                bag[j] = t;
+            }
+            bagIndex = 0;
+        }
+        return bag[bagIndex++];
+    }
+
+    @Override
+    protected void restart(long seed) {
+        bagIndex = bag.length;
+    }
+
+    // 袋の中身と取り出した位置
+    @Override
+    protected int extraStateSize() {
+        return bag.length + 1;
+    }
+
+    @Override
+    protected void saveExtra(long[] out, int offset) {
+        for (int i = 0; i < bag.length; i++) {
+            out[offset + i] = bag[i];
+        }
+        out[offset + bag.length] = bagIndex;
+    }
+
+    @Override
+    protected void restoreExtra(long[] in, int offset) {
+        long index = in[offset + bag.length];
+        if (index < 0 || index > bag.length) throw new IllegalArgumentException("袋の位置が不正です: " + index);
+        for (int i = 0; i < bag.length; i++) {
+            long type = in[offset + i];
+            if (type < 0 || type >= Tetromino.COUNT) throw new IllegalArgumentException("ミノの種類が不正です: " + type);
+            bag[i] = (int) type;
+        }
+        bagIndex = (int) index;
+    }
+}
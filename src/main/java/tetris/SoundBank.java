@@ -0,0 +1,114 @@
+package tetris;
+
+import java.io.IOException;
+import java.net.URL;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+// BGM と効果音をまとめて扱う
+// 効果音の WAV は起動時に一度だけミキサーの形式（44.1kHz / 16bit / ステレオ）の PCM にデコードしておき、
+// BGM は鳴らしている間だけ BgmStream で少しずつ読む
+// 再生は AudioMixer のスレッドが 1 本のラインに混ぜて行う。ここの呼び出しはどれもすぐ戻る
+public final class SoundBank {
+
+    public enum Sound {
+        START("/sound/start.wav"),
+        LINE_CLEAR("/sound/line_clear.wav"),
+        TETRIS("/sound/tetris.wav"),
+        GAME_OVER("/sound/gameover.wav"),
+        FINISH("/sound/finish.wav");
+
+        final String path;
+
+        Sound(String path) {
+            this.path = path;
+        }
+    }
+
+    static final String BGM_PATH = "/sound/bgm.wav";
+
+    private final AudioMixer mixer;
+
+    public SoundBank() {
+        mixer = new AudioMixer(SoundBank::loadAll, BGM_PATH);
+        mixer.start();
+    }
+
+    public void play(Sound sound) {
+        mixer.post(AudioMixer.PLAY, sound.ordinal());
+    }
+
+    // BGM 開始（ループ）、鳴っている間は何もしない
+    public void startBgm() {
+        mixer.post(AudioMixer.BGM_START, 0);
+    }
+
+    // BGM 停止（次は頭から）
+    public void stopBgm() {
+        mixer.post(AudioMixer.BGM_STOP, 0);
+    }
+
+    public void close() {
+        mixer.shutdown();
+    }
+
+    private static short[][] loadAll() {
+        Sound[] all = Sound.values();
+        short[][] pcm = new short[all.length][];
+        for (Sound sound : all) {
+            pcm[sound.ordinal()] = decode(sound.path);
+        }
+        return pcm;
+    }
+
+    // WAV をミキサーの形式のインターリーブ PCM にする（読めなければ null）
+    static short[] decode(String path) {
+        URL url = SoundBank.class.getResource(path);
+        if (url == null) {
+            System.out.println("音声ファイルが見つかりません: " + path);
+            return null;
+        }
+        try (AudioInputStream src = AudioSystem.getAudioInputStream(url)) {
+            AudioFormat f = src.getFormat();
+            int channels = f.getChannels();
+            // まず 16bit リトルエンディアンにそろえる（チャンネル数と周波数は下で変換）
+            AudioFormat pcm16 = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, f.getSampleRate(), 16,
+                    channels, channels * 2, f.getSampleRate(), false);
+            try (AudioInputStream ais = AudioSystem.getAudioInputStream(pcm16, src)) {
+                byte[] bytes = ais.readAllBytes();
+                short[] samples = new short[bytes.length / 2];
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] = (short) ((bytes[i * 2] & 0xFF) | (bytes[i * 2 + 1] << 8));
+                }
+                short[] out = convert(samples, channels, f.getSampleRate());
+                return out.length == 0 ? null : out;
+            }
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    // チャンネル数と周波数をミキサーに合わせる（周波数は線形補間）
+    static short[] convert(short[] samples, int channels, float sampleRate) {
+        int frames = samples.length / channels;
+        int outFrames = (int) ((long) frames * AudioMixer.SAMPLE_RATE / sampleRate);
+        short[] out = new short[outFrames * AudioMixer.CHANNELS];
+        double step = sampleRate / AudioMixer.SAMPLE_RATE;
+        for (int i = 0; i < outFrames; i++) {
+            double p = i * step;
+            int f0 = (int) p;
+            int f1 = Math.min(f0 + 1, frames - 1);
+            double t = p - f0;
+            for (int c = 0; c < AudioMixer.CHANNELS; c++) {
+                int sc = Math.min(c, channels - 1);
+                double s0 = samples[f0 * channels + sc];
+                double s1 = samples[f1 * channels + sc];
+                out[i * AudioMixer.CHANNELS + c] = (short) Math.round(s0 + (s1 - s0) * t);
+            }
+        }
+        return out;
+    }
+}
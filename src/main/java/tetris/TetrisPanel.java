@@ -1,61 +1,53 @@
 package tetris;
 
-import java.awt.AlphaComposite;
 import java.awt.Color;
-import java.awt.Composite;
 import java.awt.Dimension;
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.LayoutManager;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.io.IOException;
-import java.net.URL;
 import java.util.List;
-import java.util.Random;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 import javax.swing.JButton;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
-public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
-    static final int COLS = 10;
-    static final int ROWS = 20;
+public class TetrisPanel extends JPanel implements ActionListener, KeyListener, GameEngine.Listener {
     static final int BLOCK = 30;
     static final int OFFSET_Y = 40;
 
-    GameBoard gameBoard = new GameBoard();
-    Timer timer;
-    Piece currentPiece;
-    int[][] nextBlock;
-    Color nextColor;
-
-    boolean running = false;
-    boolean gameOver = false;
+    // 盤面と右側の表示の範囲（プレイ中はこの中の変わったところだけ描き直す、盤面の大きさから決める）
+    final Rectangle boardArea;
+    final Rectangle hudArea;
 
-    boolean spinActive = false;
-    long spinStartTime;
-    long lastSpinTime;
+    // 固定ステップの長さと、タイマーが遅れたときに追いつく上限
+    static final long STEP_NS = GameEngine.TICK_MS * 1_000_000L;
+    static final long MAX_CATCH_UP_NS = 250_000_000L;
 
-    boolean paused = false;
-    boolean softDropping = false;
+    // ルール本体（この画面は描画と入力の受け渡しだけ）
+    // 時計はステップごとに TICK_MS ずつ進める（落下・ロック遅延はステップ数で決まる）
+    final ManualClock clock = new ManualClock();
+    GameEngine engine;
+    Timer timer;
+    long lastStepNanos = 0L;
+    long stepAcc = 0L;
 
-    int normalDelay = 500;
-    int softDropDelay = 50;
+    // 移動・回転などの入力（DAS / ARR はステップごとにここでかける）
+    final InputController input = new InputController();
 
-    int score = 0;
-    int level = 1;
-    int linesClearedTotal = 0;
+    // ★リプレイ：ゲームごとにシードを決め、プレイ中の入力を ~/.tetris_replays に書く
+    static final String GENERATOR = "random";
+    long seed = 0L;
+    ReplayWriter recorder = null;
 
-    Random rand = new Random();
+    // ★A キーで自動プレイ（落下間隔ごとに 1 手ずつ置く）
+    AutoPlayer autoPlayer = new AutoPlayer();
+    boolean autoPlay = false;
+    int autoSteps = 0;
 
     JButton startButton;
     JButton replayButton;
@@ -67,46 +59,75 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
     boolean showGo = false;
     long messageStartTime = 0L;
 
-    static final int GAME_DURATION_SEC = 180;
-    long playStartTimeMs = 0L;
-    int remainingSeconds = 180;
-    boolean finished = false;
-
     // ★追加：ランキング画面切替
     boolean showRankingScreen = false;
-    List<Integer> topScores = java.util.List.of();
+    List<ScoreRecord> topScores = java.util.List.of();
+
+    // ランキングは 1 ページ 10 件。P で自分の記録だけに切り替え
+    static final int RANKING_PAGE_SIZE = 10;
+    int rankingPage = 0;
+    boolean rankingMine = false;
+    final String player = ScoreRecord.defaultPlayer();
 
-    // ★追加：新記録判定（Finish時のみ）
+    // ★追加：新記録判定（記録したときのみ）
     boolean newRecord = false;
     int previousBestScore = 0;
-    int lastSavedScore = 0;
+    ScoreRecord lastSaved = null;
 
-    // ★BGM用（プレイ中ループ）
-    private Clip bgmClip;
+    // 盤面の描画（固定済みブロックは画像にキャッシュ）
+    final BoardRenderer renderer;
+
+    // 前回描いたミノ（種類・向き・位置・ゴーストの高さ、ミノがなければ種類 -1）とその範囲、右側の表示の中身
+    // 範囲だけでは 180 度回しても外枠の変わらない T・J・L の回転を見落とすので、ミノそのものを覚えておく
+    private final Rectangle pieceArea = new Rectangle();
+    private final Rectangle ghostArea = new Rectangle();
+    private int lastType = -1;
+    private int lastRotation;
+    private int lastX;
+    private int lastY;
+    private int lastGhostY;
+    private long lastBoardVersion = -1L;
+    private long lastHud = -1L;
+
+    // 描画間隔の記録（--active の描画ループと比べる用、終了時に表示）
+    final FrameStats frames = new FrameStats("swing");
+
+    // ★BGM・効果音（起動時にまとめて読み込み、再生はミキサースレッド）
+    final SoundBank sounds = new SoundBank();
 
     public TetrisPanel() {
-        this.setPreferredSize(new Dimension(480, 640));
+        this(GameBoard.COLS, GameBoard.ROWS);
+    }
+
+    // 盤面の大きさを指定して作る（java tetris.Main --board 列x行）
+    public TetrisPanel(int cols, int rows) {
+        this.engine = new GameEngine(this.clock, PieceGenerator.create(GENERATOR, 0L, GameEngine.PREVIEW_DEPTH), cols, rows);
+        this.renderer = new BoardRenderer(this.engine.getBoard());
+        this.boardArea = new Rectangle(0, OFFSET_Y, this.renderer.width + 1, this.renderer.height + 1);
+        this.hudArea = new Rectangle(this.renderer.hudX() - 10, 0, BoardRenderer.HUD_WIDTH + 10, 230);
+        Dimension size = this.renderer.preferredSize();
+        int center = this.renderer.width / 2;
+
+        this.setPreferredSize(size);
         this.setBackground(Color.BLACK);
         this.setLayout((LayoutManager) null);
         this.setFocusable(true);
         this.addKeyListener(this);
-        this.timer = new Timer(this.normalDelay, this);
-
-        // ★BGMを読み込み（resources/sound/bgm.wav）
-        this.bgmClip = loadClip("/sound/bgm.wav");
+        this.engine.setListener(this);
+        this.timer = new Timer(GameEngine.TICK_MS, this);
 
         this.startButton = new JButton("START");
-        this.startButton.setBounds(110, 260, 120, 40);
+        this.startButton.setBounds(center - 40, 260, 120, 40);
         this.startButton.addActionListener((e) -> {
-            this.playStartSound();
+            this.sounds.play(SoundBank.Sound.START);
             this.startGame();
         });
         this.add(this.startButton);
 
         this.replayButton = new JButton("Replay");
-        this.replayButton.setBounds(330, 570, 120, 30);
+        this.replayButton.setBounds(this.renderer.hudX(), size.height - 70, 120, 30);
         this.replayButton.addActionListener((e) -> {
-            this.playStartSound();
+            this.sounds.play(SoundBank.Sound.START);
             this.startGame();
         });
         this.replayButton.setVisible(false);
@@ -114,11 +135,13 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
 
         // ★追加：Finish画面でReplayの上に置く
         this.rankingButton = new JButton("ScoreRanking");
-        this.rankingButton.setBounds(330, 530, 120, 30);
+        this.rankingButton.setBounds(this.renderer.hudX(), size.height - 110, 120, 30);
         this.rankingButton.addActionListener((e) -> {
-            // ランキング画面へ切り替え
+            // ランキング画面へ切り替え（今遊んだモードの 1 ページ目）
             this.showRankingScreen = true;
-            this.topScores = ScoreManager.getTopScores(10);
+            this.rankingPage = 0;
+            this.rankingMine = false;
+            this.reloadRanking();
 
             // ボタン表示：ランキング画面ではReplayだけ（右下）
             this.rankingButton.setVisible(false);
@@ -130,39 +153,50 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
         this.rankingButton.setVisible(false);
         this.add(this.rankingButton);
 
-        this.nextPiece();
+        // ★スコアの索引が更新されたら EDT で一覧を取り直す（メモリを見るだけ）
+        ScoreManager.addListener(() -> SwingUtilities.invokeLater(() -> {
+            if (this.showRankingScreen) this.reloadRanking();
+        }));
+    }
+
+    void reloadRanking() {
+        this.topScores = ScoreManager.getTopScores(this.rankingMine ? this.player : null, this.engine.getMode(),
+                this.rankingPage * RANKING_PAGE_SIZE, RANKING_PAGE_SIZE);
+        this.repaint();
+    }
+
+    // ★スコアを記録（書き込みは裏で行う）
+    private void recordScore() {
+        this.previousBestScore = ScoreManager.getBestScore(this.engine.getMode());
+        this.lastSaved = ScoreRecord.of(this.engine, this.player, System.currentTimeMillis());
+        ScoreManager.addScore(this.lastSaved);
+        this.newRecord = this.lastSaved.getScore() > this.previousBestScore;
     }
 
     void startGame() {
         // ★再スタート時も含めてBGMを止めてから開始（安全策）
-        stopBgm();
-
-        this.gameBoard.clear();
-        this.score = 0;
-        this.level = 1;
-        this.linesClearedTotal = 0;
-        this.running = false;
-        this.gameOver = false;
-        this.paused = false;
-        this.softDropping = false;
-        this.finished = false;
-        this.remainingSeconds = GAME_DURATION_SEC;
-        this.playStartTimeMs = 0L;
+        this.sounds.stopBgm();
+
+        // 途中でやめたゲームもそこまでをリプレイに残す
+        this.finishRecording();
+        this.seed = System.nanoTime();
+        this.engine.reseed(this.seed);
+        this.engine.reset();
 
         // ★ランキング関連初期化
         this.showRankingScreen = false;
         this.topScores = java.util.List.of();
         this.newRecord = false;
         this.previousBestScore = 0;
-        this.lastSavedScore = 0;
+        this.lastSaved = null;
 
-        this.timer.setDelay(this.normalDelay);
+        this.input.clear();
+        this.autoSteps = 0;
         this.startButton.setVisible(false);
         this.replayButton.setVisible(false);
         this.rankingButton.setVisible(false);
 
-        this.spawnPiece();
-
+        this.frames.clear();
         this.showReady = true;
         this.showGo = false;
         this.messageStartTime = System.currentTimeMillis();
@@ -171,176 +205,91 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
         this.repaint();
     }
 
-    // Clipを読み込んで保持する（BGM用）
-    private Clip loadClip(String path) {
+    // ★続きから：セーブした時点の盤面・ミノ・残り時間からそのまま再開する
+    // 途中から始まったゲームは最初から再生できないのでリプレイは記録しない
+    // ミノの出し方・盤面の大きさは SaveGame.takeDefault で合わせてある
+    void resume(SaveGame save) {
         try {
-            URL url = getClass().getResource(path);
-            if (url == null) {
-                System.out.println("音声ファイルが見つかりません: " + path);
-                return null;
-            }
-            AudioInputStream ais = AudioSystem.getAudioInputStream(url);
-            Clip clip = AudioSystem.getClip();
-            clip.open(ais);
-            return clip;
-        } catch (IOException | LineUnavailableException | UnsupportedAudioFileException ex) {
-            ex.printStackTrace();
-            return null;
+            save.apply(this.engine);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("セーブから再開できませんでした: " + ex.getMessage());
+            this.engine.reset();
+            return;
         }
+        this.seed = save.seed;
+        this.input.clear();
+        this.autoSteps = 0;
+        this.startButton.setVisible(false);
+        this.replayButton.setVisible(false);
+        this.rankingButton.setVisible(false);
+        this.frames.clear();
+        this.lastStepNanos = System.nanoTime();
+        this.stepAcc = 0L;
+        this.timer.start();
+        if (this.engine.isRunning() && !this.engine.isPaused()) this.sounds.startBgm();
+        this.requestFocusInWindow();
+        this.repaint();
     }
 
-    // ★BGM開始（ループ）
-    private void startBgmLoop() {
-        if (bgmClip == null) return;
-        if (bgmClip.isRunning()) return;
-
-        bgmClip.stop();
-        bgmClip.setFramePosition(0);
-        bgmClip.loop(Clip.LOOP_CONTINUOUSLY);
-        bgmClip.start();
-    }
-
-    // ★BGM停止
-    private void stopBgm() {
-        if (bgmClip == null) return;
-        if (bgmClip.isRunning()) {
-            bgmClip.stop();
-        }
-        bgmClip.setFramePosition(0);
+    // ★ウィンドウを閉じるとき：遊んでいる途中ならセーブ、そうでなければ前のセーブを消す
+    void suspend() {
+        SaveGame.saveOrDiscard(this.engine, GENERATOR, this.seed);
     }
 
-    private void playStartSound() {
-        try {
-            URL soundURL = this.getClass().getResource("/sound/start.wav");
-            if (soundURL == null) {
-                System.out.println("start.wav が見つかりません: /sound/start.wav");
-                return;
-            }
-            AudioInputStream audioInput = AudioSystem.getAudioInputStream(soundURL);
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioInput);
-            clip.start();
-        } catch (IOException | LineUnavailableException | UnsupportedAudioFileException ex) {
-            ex.printStackTrace();
-        }
-    }
+    // ★ゲームオーバー（GameEngine から通知）
+    @Override
+    public void gameOver() {
+        // ★ゲームオーバーでBGM停止
+        this.sounds.stopBgm();
 
-    // ライン消去（ミノ消滅）効果音
-    private void playLineClearSound() {
-        try {
-            URL soundURL = this.getClass().getResource("/sound/line_clear.wav");
-            if (soundURL == null) {
-                System.out.println("line_clear.wav が見つかりません: /sound/line_clear.wav");
-                return;
-            }
-            AudioInputStream audioInput = AudioSystem.getAudioInputStream(soundURL);
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioInput);
-            clip.start();
-        } catch (IOException | LineUnavailableException | UnsupportedAudioFileException ex) {
-            ex.printStackTrace();
-        }
-    }
+        this.sounds.play(SoundBank.Sound.GAME_OVER);
+        this.timer.stop();
+        FrameStats.report(this.frames, this.input.latency());
 
-    // ★追加：テトリス（4ライン以上）専用効果音
-    private void playTetrisSound() {
-        try {
-            URL soundURL = this.getClass().getResource("/sound/tetris.wav");
-            if (soundURL == null) {
-                System.out.println("tetris.wav が見つかりません: /sound/tetris.wav");
-                return;
-            }
-            AudioInputStream audioInput = AudioSystem.getAudioInputStream(soundURL);
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioInput);
-            clip.start();
-        } catch (IOException | LineUnavailableException | UnsupportedAudioFileException ex) {
-            ex.printStackTrace();
-        }
+        // 時間制限のないモードは積み上がったところで記録する
+        // 180秒モードのGAMEOVERではランキングボタンは出さない（要件：Finish時）
+        boolean record = !this.engine.getMode().isTimed();
+        if (record) this.recordScore();
+        this.replayButton.setVisible(true);
+        this.rankingButton.setVisible(record);
     }
 
-    private void playGameOverSound() {
-        try {
-            URL soundURL = this.getClass().getResource("/sound/gameover.wav");
-            if (soundURL == null) {
-                System.out.println("gameover.wav が見つかりません: /sound/gameover.wav");
-                return;
-            }
-            AudioInputStream audioInput = AudioSystem.getAudioInputStream(soundURL);
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioInput);
-            clip.start();
-        } catch (IOException | LineUnavailableException | UnsupportedAudioFileException ex) {
-            ex.printStackTrace();
+    @Override
+    public void linesCleared(int cleared) {
+        // ★修正：テトリス(4ライン以上)の時だけ専用SE、それ以外は通常SE
+        if (cleared >= 4) {
+            this.sounds.play(SoundBank.Sound.TETRIS);
+        } else {
+            this.sounds.play(SoundBank.Sound.LINE_CLEAR);
         }
     }
 
-    private void playFinishSound() {
-        try {
-            URL soundURL = this.getClass().getResource("/sound/finish.wav");
-            if (soundURL == null) {
-                System.out.println("finish.wav が見つかりません: /sound/finish.wav");
-                return;
-            }
-            AudioInputStream audioInput = AudioSystem.getAudioInputStream(soundURL);
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioInput);
-            clip.start();
-        } catch (IOException | LineUnavailableException | UnsupportedAudioFileException ex) {
-            ex.printStackTrace();
+    // 固定ステップ 1 回：入力 → 自動プレイ → 落下・ロック判定 → 時計を進める
+    // ポーズ中も時計は進む（制限時間は止まらない）。リプレイも同じ順に再生する（ReplayPlayer）
+    private void step() {
+        this.input.update(this.engine);
+        if (this.autoPlay && this.engine.isRunning() && !this.engine.isPaused()
+                && ++this.autoSteps >= this.engine.gravityDelay() / GameEngine.TICK_MS) {
+            this.autoSteps = 0;
+            if (this.recorder != null) this.recorder.record(Replay.AUTO);
+            this.autoPlayer.play(this.engine);
         }
-    }
-
-    void nextPiece() {
-        int i = this.rand.nextInt(Tetromino.SHAPES.length);
-        this.nextBlock = Tetromino.SHAPES[i];
-        this.nextColor = Tetromino.COLORS[i];
-    }
-
-    void spawnPiece() {
-        this.currentPiece = new Piece(this.nextBlock, this.nextColor, 3, 0);
-        this.spinActive = false;
-        this.nextPiece();
-
-        if (!this.currentPiece.canMove(this.gameBoard, this.currentPiece.x, this.currentPiece.y)) {
-            this.gameOver = true;
-
-            // ★ゲームオーバーでBGM停止
-            stopBgm();
+        this.engine.step();
+        this.clock.advance(GameEngine.TICK_MS);
 
-            this.playGameOverSound();
-            this.running = false;
-            this.timer.stop();
-
-            // GAMEOVERではランキングボタンは出さない（要件：Finish時）
-            this.replayButton.setVisible(true);
-            this.rankingButton.setVisible(false);
+        if (this.recorder != null) {
+            this.recorder.nextStep();
+            if (!this.engine.isRunning()) this.finishRecording();
         }
     }
 
-    void fixPiece() {
-        this.gameBoard.placeBlock(this.currentPiece.x, this.currentPiece.y, this.currentPiece.shape, this.currentPiece.color);
-
-        int cleared = this.gameBoard.clearLines();
-
-        // ★修正：テトリス(4ライン以上)の時だけ専用SE、それ以外は通常SE
-        if (cleared >= 4) {
-            this.playTetrisSound();
-        } else if (cleared > 0) {
-            this.playLineClearSound();
-        }
-
-        this.score += cleared * 100;
-        this.linesClearedTotal += cleared;
-
-        int newLevel = 1 + this.linesClearedTotal / 10;
-        if (newLevel != this.level) {
-            this.level = newLevel;
-            this.normalDelay = Math.max(100, 500 - (this.level - 1) * 40);
-            this.timer.setDelay(this.normalDelay);
-        }
-
-        this.spawnPiece();
+    private void finishRecording() {
+        if (this.recorder == null) return;
+        this.recorder.finish(this.engine);
+        // 保存先は --stats のときだけ表示する
+        if (FrameStats.reporting()) System.out.println("replay: " + this.recorder.getPath());
+        this.input.setRecorder(null);
+        this.recorder = null;
     }
 
     public void actionPerformed(ActionEvent e) {
@@ -364,63 +313,99 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
                 this.showGo = false;
 
                 // ★Go!! が終わってゲーム開始した瞬間
-                this.running = true;
-                this.finished = false;
-                this.playStartTimeMs = now;
-                this.remainingSeconds = GAME_DURATION_SEC;
+                this.engine.begin();
+                this.recorder = ReplayWriter.start(GENERATOR, this.seed, this.engine.getMode(), this.engine.getBoard(),
+                        this.input.dasMs(), this.input.arrMs());
+                this.input.setRecorder(this.recorder);
+                this.lastStepNanos = System.nanoTime();
+                this.stepAcc = 0L;
 
                 // ★BGM開始（プレイ中ずっと）
-                startBgmLoop();
+                this.sounds.startBgm();
             }
             this.repaint();
             return;
         }
 
-        if (this.running && !this.paused) {
-            if (this.playStartTimeMs > 0L) {
-                long elapsedSec = (now - this.playStartTimeMs) / 1000L;
-                this.remainingSeconds = (int) Math.max(0L, GAME_DURATION_SEC - elapsedSec);
-                if (this.remainingSeconds <= 0) {
-                    this.finishGame(); // ★ここでスコア保存
-                    this.repaint();
-                    return;
-                }
+        if (this.engine.isRunning()) {
+            // 前回からの経過時間ぶんステップを回す（タイマーが遅れても落下の速さは変わらない）
+            long nanos = System.nanoTime();
+            this.stepAcc = Math.min(this.stepAcc + nanos - this.lastStepNanos, MAX_CATCH_UP_NS);
+            this.lastStepNanos = nanos;
+
+            // 制限時間切れなら finished() が呼ばれてスコア保存
+            while (this.stepAcc >= STEP_NS && this.engine.isRunning()) {
+                this.stepAcc -= STEP_NS;
+                this.step();
+            }
+            if (this.engine.isRunning()) {
+                this.repaintDirty();
+            } else {
+                this.repaint();
             }
+        }
+    }
 
-            if (this.currentPiece.canMove(this.gameBoard, this.currentPiece.x, this.currentPiece.y + 1)) {
-                ++this.currentPiece.y;
-                this.spinActive = false;
-            } else if (!this.spinActive) {
-                this.spinActive = true;
-                this.spinStartTime = now;
-                this.lastSpinTime = now;
-            } else if (now - this.lastSpinTime > 500L || now - this.spinStartTime > 5000L) {
-                this.fixPiece();
-                this.spinActive = false;
+    // プレイ中の描き直し：動いたミノの前後の範囲と、変わった部分だけを repaint する
+    private void repaintDirty() {
+        GameBoard board = this.engine.getBoard();
+        if (board.getVersion() != this.lastBoardVersion) {
+            this.lastBoardVersion = board.getVersion();
+            this.repaint(this.boardArea);
+        }
+
+        // ミノが動いて（回って）いなければ何もしない
+        Piece piece = this.engine.getCurrentPiece();
+        int type = piece != null ? piece.type : -1;
+        int rotation = piece != null ? piece.rotation : 0;
+        int x = piece != null ? piece.x : 0;
+        int y = piece != null ? piece.y : 0;
+        int ghostY = piece != null ? piece.getGhostY(board) : 0;
+        if (type != this.lastType || rotation != this.lastRotation || x != this.lastX || y != this.lastY
+                || ghostY != this.lastGhostY) {
+            this.lastType = type;
+            this.lastRotation = rotation;
+            this.lastX = x;
+            this.lastY = y;
+            this.lastGhostY = ghostY;
+            // 前に描いた範囲を消し、今の範囲を描く
+            this.repaint(this.pieceArea);
+            this.repaint(this.ghostArea);
+            if (piece != null) {
+                this.renderer.pieceBounds(piece, y, this.pieceArea);
+                this.renderer.pieceBounds(piece, ghostY, this.ghostArea);
+            } else {
+                this.pieceArea.setBounds(0, 0, 0, 0);
+                this.ghostArea.setBounds(0, 0, 0, 0);
             }
+            this.repaint(this.pieceArea);
+            this.repaint(this.ghostArea);
+        }
 
-            this.repaint();
+        // 右側は表示している値が変わったときだけ
+        long hud = ((long) this.engine.getScore() << 32)
+                ^ ((long) this.engine.getLevel() << 24)
+                ^ ((long) BoardRenderer.displaySeconds(this.engine) << 8)
+                ^ ((long) (this.engine.getNextType() + 1) << 1)
+                ^ (this.autoPlay ? 1L : 0L);
+        if (hud != this.lastHud) {
+            this.lastHud = hud;
+            this.repaint(this.hudArea);
         }
     }
 
-    private void finishGame() {
-        this.finished = true;
-        this.running = false;
-        this.paused = false;
-        this.softDropping = false;
-
+    // ★制限時間終了（GameEngine から通知）
+    @Override
+    public void finished() {
         // ★FINISHでBGM停止
-        stopBgm();
+        this.sounds.stopBgm();
 
         // ★スコアを記録（Finish時のみ）
-        this.previousBestScore = ScoreManager.getBestScore();
-        this.lastSavedScore = this.score;
-        ScoreManager.addScore(this.score);
-        this.topScores = ScoreManager.getTopScores(10);
-        this.newRecord = this.score > this.previousBestScore;
+        this.recordScore();
 
-        this.playFinishSound();
+        this.sounds.play(SoundBank.Sound.FINISH);
         this.timer.stop();
+        FrameStats.report(this.frames, this.input.latency());
 
         // ★Finish画面：ReplayとScoreRankingボタンを表示
         this.replayButton.setVisible(true);
@@ -433,11 +418,16 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
         // =========================
         // START画面で S でも開始
         // =========================
-        if (this.startButton.isVisible() && !this.running && !this.showReady && !this.showGo
-                && !this.gameOver && !this.finished && !this.showRankingScreen) {
+        if (this.startButton.isVisible() && !this.engine.isRunning() && !this.showReady && !this.showGo
+                && !this.engine.isGameOver() && !this.engine.isFinished() && !this.showRankingScreen) {
             if (key == KeyEvent.VK_S) {
-                this.playStartSound();
+                this.sounds.play(SoundBank.Sound.START);
                 this.startGame();
+            } else if (key == KeyEvent.VK_M) {
+                // M でモード切替
+                GameMode[] modes = GameMode.values();
+                this.engine.setMode(modes[(this.engine.getMode().ordinal() + 1) % modes.length]);
+                this.repaint();
             }
             return;
         }
@@ -445,74 +435,79 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
         // =========================
         // Replay画面で R でも開始（GameOver / Finish / Ranking）
         // =========================
-        if ((this.gameOver || this.finished || this.showRankingScreen) && this.replayButton.isVisible()) {
+        if ((this.engine.isGameOver() || this.engine.isFinished() || this.showRankingScreen) && this.replayButton.isVisible()) {
             if (key == KeyEvent.VK_R) {
-                this.playStartSound();
+                this.sounds.play(SoundBank.Sound.START);
                 this.startGame();
+                return;
+            }
+            if (this.showRankingScreen) {
+                this.rankingKey(key);
+                return;
             }
-            if (this.showRankingScreen) return;
         }
 
-        // ランキング画面中は（上のR以外）キー操作無効
+        // ランキング画面中は（上のR以外）ページ送りと自分の記録への切替だけ
         if (this.showRankingScreen) return;
 
         // ここから先はプレイ中
-        if (!this.showReady && !this.showGo && !this.finished && !this.gameOver) {
+        if (!this.showReady && !this.showGo && !this.engine.isFinished() && !this.engine.isGameOver()) {
 
             // ★変更：HでHOLD（paused）になったらBGM停止、解除で再開
             if (key == KeyEvent.VK_H) {
-                this.paused = !this.paused;
-
-                if (this.paused) {
-                    stopBgm();
+                if (this.recorder != null && this.engine.isRunning()) this.recorder.record(Replay.PAUSE);
+                if (this.engine.togglePause()) {
+                    this.sounds.stopBgm();
                 } else {
-                    if (this.running) startBgmLoop();
+                    if (this.engine.isRunning()) this.sounds.startBgm();
                 }
 
                 this.repaint();
                 return;
             }
 
+            // Aで自動プレイ切替（大きすぎる盤面では置き場所を探せないので切り替えない）
+            if (key == KeyEvent.VK_A) {
+                GameBoard board = this.engine.getBoard();
+                if (MoveGenerator.supports(board.getCols(), board.getRows())) this.autoPlay = !this.autoPlay;
+                this.repaint();
+                return;
+            }
+
             // Rでリスタート（プレイ中もOK）
             if (key == KeyEvent.VK_R) {
-                this.playStartSound();
+                this.sounds.play(SoundBank.Sound.START);
                 this.startGame();
                 return;
             }
 
-            if (this.running && !this.paused) {
-                if (key == KeyEvent.VK_LEFT) {
-                    if (this.currentPiece.canMove(this.gameBoard, this.currentPiece.x - 1, this.currentPiece.y)) {
-                        --this.currentPiece.x;
-                    }
-                    if (this.spinActive) this.lastSpinTime = System.currentTimeMillis();
-                } else if (key == KeyEvent.VK_RIGHT) {
-                    if (this.currentPiece.canMove(this.gameBoard, this.currentPiece.x + 1, this.currentPiece.y)) {
-                        ++this.currentPiece.x;
-                    }
-                    if (this.spinActive) this.lastSpinTime = System.currentTimeMillis();
-                } else if (key == KeyEvent.VK_DOWN) {
-                    this.softDropping = true;
-                    this.timer.setDelay(this.softDropDelay);
-                } else if (key == KeyEvent.VK_SPACE) {
-                    boolean rotated = this.currentPiece.rotateWithKick(this.gameBoard, true);
-                    if (rotated && this.spinActive) this.lastSpinTime = System.currentTimeMillis();
-                } else if (key == KeyEvent.VK_UP) {
-                    while (this.currentPiece.canMove(this.gameBoard, this.currentPiece.x, this.currentPiece.y + 1)) {
-                        ++this.currentPiece.y;
-                    }
-                    this.fixPiece();
-                }
-
-                this.repaint();
+            // 移動・回転は時刻つきで積むだけ（次のステップで反映）
+            int action = InputController.actionOf(key);
+            if (action >= 0 && this.engine.isRunning() && !this.engine.isPaused()) {
+                this.input.press(action, System.nanoTime());
             }
         }
     }
 
+    private void rankingKey(int key) {
+        if (key == KeyEvent.VK_LEFT && this.rankingPage > 0) {
+            this.rankingPage--;
+        } else if (key == KeyEvent.VK_RIGHT) {
+            int count = ScoreManager.getCount(this.rankingMine ? this.player : null, this.engine.getMode());
+            if ((this.rankingPage + 1) * RANKING_PAGE_SIZE < count) this.rankingPage++;
+        } else if (key == KeyEvent.VK_P) {
+            this.rankingMine = !this.rankingMine;
+            this.rankingPage = 0;
+        } else {
+            return;
+        }
+        this.reloadRanking();
+    }
+
     public void keyReleased(KeyEvent e) {
-        if (e.getKeyCode() == KeyEvent.VK_DOWN) {
-            this.softDropping = false;
-            this.timer.setDelay(this.normalDelay);
+        int action = InputController.actionOf(e.getKeyCode());
+        if (action >= 0) {
+            this.input.release(action, System.nanoTime());
         }
     }
 
@@ -528,112 +523,70 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
         }
 
         if (this.showReady) {
-            this.drawCenteredText(g, "Ready?", Color.WHITE);
+            this.renderer.drawCenteredText(g, "Ready?", Color.WHITE);
             return;
         }
 
         if (this.showGo) {
-            this.drawCenteredText(g, "Go!!", Color.WHITE);
-            return;
-        }
-
-        if (!this.running && !this.gameOver && !this.finished && this.startButton.isVisible()) {
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.BOLD, 32));
-            g.drawString("TETRIS", 110, 200);
+            this.renderer.drawCenteredText(g, "Go!!", Color.WHITE);
             return;
         }
 
-        g.setColor(Color.DARK_GRAY);
+        GameBoard gameBoard = this.engine.getBoard();
+        Piece currentPiece = this.engine.getCurrentPiece();
+        boolean running = this.engine.isRunning();
+        boolean paused = this.engine.isPaused();
+        boolean gameOver = this.engine.isGameOver();
+        boolean finished = this.engine.isFinished();
 
-        for (int y = 0; y <= 20; ++y) {
-            g.drawLine(0, y * 30 + 40, 300, y * 30 + 40);
-        }
-        for (int x = 0; x <= 10; ++x) {
-            g.drawLine(x * 30, 40, x * 30, 640);
+        if (running && !paused) {
+            long nanos = System.nanoTime();
+            this.frames.frame(nanos);
+            this.input.displayed(nanos);
+        } else {
+            this.frames.skip();
         }
 
-        for (int y = 0; y < 20; ++y) {
-            for (int x = 0; x < 10; ++x) {
-                Color c = this.gameBoard.board[y][x];
-                if (c != null) {
-                    this.drawBlockCell(g, x, y, c, false);
-                }
-            }
+        if (!running && !gameOver && !finished && this.startButton.isVisible()) {
+            g.setColor(Color.WHITE);
+            g.setFont(BoardRenderer.TITLE_FONT);
+            int center = this.renderer.width / 2;
+            g.drawString("TETRIS", center - 40, 200);
+            g.setFont(BoardRenderer.HINT_FONT);
+            g.drawString("MODE: " + this.engine.getMode().getLabel() + "（Mで切替）", center - 50, 240);
+            return;
         }
 
+        // 罫線と固定済みブロックはキャッシュした画像を貼るだけ
+        this.renderer.drawBoard(g, gameBoard);
+
         // ゴーストミノ
-        if (this.running && !this.paused && !this.gameOver && !this.finished && this.currentPiece != null) {
-            int ghostY = this.currentPiece.getGhostY(this.gameBoard);
-            if (ghostY != this.currentPiece.y) {
-                for (int r = 0; r < this.currentPiece.shape.length; ++r) {
-                    for (int c = 0; c < this.currentPiece.shape[0].length; ++c) {
-                        if (this.currentPiece.shape[r][c] == 1) {
-                            int x = this.currentPiece.x + c;
-                            int y = ghostY + r;
-                            if (y >= 0) {
-                                this.drawBlockCell(g, x, y, this.currentPiece.color, true);
-                            }
-                        }
-                    }
-                }
+        if (running && !paused && !gameOver && !finished && currentPiece != null) {
+            int ghostY = currentPiece.getGhostY(gameBoard);
+            if (ghostY != currentPiece.y) {
+                this.renderer.drawPiece(g, currentPiece, ghostY, true);
             }
         }
 
         // 現在ミノ
-        if (!this.gameOver && this.currentPiece != null) {
-            for (int r = 0; r < this.currentPiece.shape.length; ++r) {
-                for (int c = 0; c < this.currentPiece.shape[0].length; ++c) {
-                    if (this.currentPiece.shape[r][c] == 1) {
-                        int x = this.currentPiece.x + c;
-                        int y = this.currentPiece.y + r;
-                        if (y >= 0) {
-                            this.drawBlockCell(g, x, y, this.currentPiece.color, false);
-                        }
-                    }
-                }
-            }
+        if (!gameOver && currentPiece != null) {
+            this.renderer.drawPiece(g, currentPiece, currentPiece.y, false);
         }
 
-        // NEXT表示
-        g.setColor(Color.WHITE);
-        g.drawString("NEXT:", 330, 30);
-
-        if (this.nextBlock != null) {
-            for (int y = 0; y < this.nextBlock.length; ++y) {
-                for (int x = 0; x < this.nextBlock[0].length; ++x) {
-                    if (this.nextBlock[y][x] == 1) {
-                        int px = 330 + x * 30;
-                        int py = 40 + y * 30;
-                        g.setColor(this.nextColor);
-                        g.fillRect(px, py, 30, 30);
-                        g.setColor(Color.BLACK);
-                        g.drawRect(px, py, 30, 30);
-                    }
-                }
-            }
+        // 右側の表示（描き直す範囲にかかっていなければ省く）
+        Rectangle clip = g.getClipBounds();
+        if (clip == null || clip.intersects(this.hudArea)) {
+            this.renderer.drawHud(g, this.engine, finished && this.newRecord, this.autoPlay);
         }
 
-        // 新記録のときだけ Score を赤（Finish後のみ）
-        if (this.finished && this.newRecord) {
-            g.setColor(Color.RED);
-        } else {
-            g.setColor(Color.WHITE);
-        }
-        g.drawString("Score: " + this.score, 330, 160);
-
-        g.setColor(Color.WHITE);
-        g.drawString("Level: " + this.level, 330, 180);
-        g.drawString("Time: " + this.formatTime(this.remainingSeconds), 330, 200);
-
-        if (this.gameOver) {
-            this.drawCenteredText(g, "GAME OVER", Color.RED);
+        if (gameOver) {
+            this.renderer.drawCenteredText(g, "GAME OVER", Color.RED);
         }
-        if (this.finished) {
-            this.drawCenteredText(g, "Finish", Color.WHITE);
+        if (finished) {
+            this.renderer.drawCenteredText(g, "Finish", Color.WHITE);
         }
-        if (this.paused) {
-            this.drawCenteredText(g, "HOLD", Color.WHITE);
+        if (paused) {
+            this.renderer.drawCenteredText(g, "HOLD", Color.WHITE);
         }
     }
 
@@ -643,65 +596,33 @@ public class TetrisPanel extends JPanel implements ActionListener, KeyListener {
         g2.fillRect(0, 0, getWidth(), getHeight());
 
         g2.setColor(Color.WHITE);
-        g2.setFont(new Font("Arial", Font.BOLD, 28));
-        g2.drawString("SCORE RANKING (TOP 10)", 40, 80);
+        g2.setFont(BoardRenderer.RANKING_TITLE_FONT);
+        g2.drawString((this.rankingMine ? "MY RANKING" : "SCORE RANKING") + " - " + this.engine.getMode().getLabel(), 40, 80);
 
-        List<Integer> scores = (this.topScores == null || this.topScores.isEmpty())
-                ? ScoreManager.getTopScores(10)
-                : this.topScores;
+        // 描画中はファイルを読まない（一覧は ScoreManager の通知で取り直す）
+        List<ScoreRecord> scores = this.topScores;
 
-        g2.setFont(new Font("Arial", Font.PLAIN, 22));
+        g2.setFont(BoardRenderer.RANKING_FONT);
         int startY = 130;
         int lineH = 30;
+        int firstRank = this.rankingPage * RANKING_PAGE_SIZE + 1;
 
-        for (int i = 0; i < Math.min(10, scores.size()); i++) {
-            int s = scores.get(i);
-            boolean highlight = this.newRecord && (s == this.lastSavedScore) && i == 0;
+        for (int i = 0; i < scores.size(); i++) {
+            ScoreRecord r = scores.get(i);
+            // 今回の記録が新記録なら赤
+            boolean highlight = this.newRecord && this.lastSaved != null
+                    && r.getTimestamp() == this.lastSaved.getTimestamp() && r.getPlayer().equals(this.lastSaved.getPlayer());
 
+            int y = startY + i * lineH;
             g2.setColor(highlight ? Color.RED : Color.WHITE);
-            g2.drawString(String.format("%2d. %d", i + 1, s), 140, startY + i * lineH);
+            g2.drawString(String.format("%3d.", firstRank + i), 40, y);
+            g2.drawString(r.getPlayer(), 110, y);
+            g2.drawString(String.valueOf(r.getScore()), 340, y);
         }
 
         g2.setColor(Color.LIGHT_GRAY);
-        g2.setFont(new Font("Arial", Font.PLAIN, 14));
-        g2.drawString("Replayで最初から開始（RキーでもOK）", 150, 610);
-    }
-
-    private void drawBlockCell(Graphics g, int gridX, int gridY, Color baseColor, boolean ghost) {
-        int px = gridX * 30;
-        int py = gridY * 30 + 40;
-
-        if (ghost) {
-            Graphics2D g2 = (Graphics2D) g;
-            Composite old = g2.getComposite();
-
-            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.25F));
-            g2.setColor(baseColor);
-            g2.fillRect(px, py, 30, 30);
-            g2.setColor(Color.BLACK);
-            g2.drawRect(px, py, 30, 30);
-
-            g2.setComposite(old);
-        } else {
-            g.setColor(baseColor);
-            g.fillRect(px, py, 30, 30);
-            g.setColor(Color.BLACK);
-            g.drawRect(px, py, 30, 30);
-        }
-    }
-
-    private String formatTime(int sec) {
-        int m = sec / 60;
-        int s = sec % 60;
-        return String.format("%d:%02d", m, s);
-    }
-
-    private void drawCenteredText(Graphics g, String msg, Color color) {
-        g.setColor(color);
-        g.setFont(new Font("Arial", Font.BOLD, 48));
-        FontMetrics fm = g.getFontMetrics();
-        int x = (300 - fm.stringWidth(msg)) / 2;
-        int y = 320;
-        g.drawString(msg, x, y);
+        g2.setFont(BoardRenderer.HINT_FONT);
+        g2.drawString("←→でページ切替 / Pで自分の記録", 40, 590);
+        g2.drawString("Replayで最初から開始（RキーでもOK）", 40, 610);
     }
 }
@@ -1,6 +1,7 @@
 package tetris;
 
 import java.awt.Color;
+import java.util.Arrays;
 
 public class Tetromino {
 
@@ -51,4 +52,111 @@ public class Tetromino {
             Color.BLUE,    // J
             new Color(255, 140, 0)  // L
     };
-}
\ No newline at end of file
+
+    public static final int COUNT = SHAPES.length;
+    public static final int ROTATIONS = 4;
+    public static final int CELLS = 4;
+
+    // SHAPES の順のミノの名前（1 文字ずつ）
+    public static final String NAMES = "IOTSZJL";
+
+    // 全種類 × 4 向きをクラスロード時に一度だけ計算しておく
+    // 向き r は SHAPES を右に r 回まわしたもの（外からは書き換えない）
+    private static final int[][] WIDTH = new int[COUNT][ROTATIONS];
+    private static final int[][] HEIGHT = new int[COUNT][ROTATIONS];
+    // [type][rot][row] : bit c = 列 c
+    private static final int[][][] MASKS = new int[COUNT][ROTATIONS][];
+    // [type][rot][2 * i] = dx, [2 * i + 1] = dy
+    private static final int[][][] CELL_OFFSETS = new int[COUNT][ROTATIONS][CELLS * 2];
+    // [type][rot][col] : その列でいちばん下のブロックの行
+    private static final int[][][] BOTTOMS = new int[COUNT][ROTATIONS][];
+    // [type][rot] : 同じ形になるいちばん小さい向き（O の全向き、I・S・Z の 180 度など）
+    private static final int[][] CANONICAL = new int[COUNT][ROTATIONS];
+
+    static {
+        for (int t = 0; t < COUNT; t++) {
+            int[][] s = SHAPES[t];
+            for (int rot = 0; rot < ROTATIONS; rot++) {
+                int h = s.length, w = s[0].length;
+                WIDTH[t][rot] = w;
+                HEIGHT[t][rot] = h;
+                MASKS[t][rot] = new int[h];
+                BOTTOMS[t][rot] = new int[w];
+                int n = 0;
+                for (int r = 0; r < h; r++) {
+                    for (int c = 0; c < w; c++) {
+                        if (s[r][c] == 1) {
+                            MASKS[t][rot][r] |= 1 << c;
+                            CELL_OFFSETS[t][rot][n++] = c;
+                            CELL_OFFSETS[t][rot][n++] = r;
+                            BOTTOMS[t][rot][c] = r;
+                        }
+                    }
+                }
+                s = rotateRight(s);
+            }
+            for (int rot = 0; rot < ROTATIONS; rot++) {
+                int c = 0;
+                while (!Arrays.equals(MASKS[t][c], MASKS[t][rot])) c++;
+                CANONICAL[t][rot] = c;
+            }
+        }
+    }
+
+    private static int[][] rotateRight(int[][] src) {
+        int h = src.length, w = src[0].length;
+        int[][] dst = new int[w][h];
+        for (int r = 0; r < h; r++) {
+            for (int c = 0; c < w; c++) {
+                dst[c][h - 1 - r] = src[r][c];
+            }
+        }
+        return dst;
+    }
+
+    public static int width(int type, int rotation) {
+        return WIDTH[type][rotation];
+    }
+
+    public static int height(int type, int rotation) {
+        return HEIGHT[type][rotation];
+    }
+
+    public static int mask(int type, int rotation, int row) {
+        return MASKS[type][rotation][row];
+    }
+
+    // 共有テーブルをそのまま返すので書き換えないこと
+    static int[] masks(int type, int rotation) {
+        return MASKS[type][rotation];
+    }
+
+    public static int bottom(int type, int rotation, int col) {
+        return BOTTOMS[type][rotation][col];
+    }
+
+    // 同じ位置に置けば同じマスを埋める向きのうち、いちばん小さいもの
+    public static int canonicalRotation(int type, int rotation) {
+        return CANONICAL[type][rotation];
+    }
+
+    public static int cellX(int type, int rotation, int i) {
+        return CELL_OFFSETS[type][rotation][i * 2];
+    }
+
+    public static int cellY(int type, int rotation, int i) {
+        return CELL_OFFSETS[type][rotation][i * 2 + 1];
+    }
+
+    // GameBoard のパレット番号（0 = 空, 1.. = COLORS の添字 + 1）
+    public static byte paletteIndex(Color color) {
+        for (int i = 0; i < COLORS.length; i++) {
+            if (COLORS[i].equals(color)) return (byte) (i + 1);
+        }
+        throw new IllegalArgumentException("パレットにない色です: " + color);
+    }
+
+    public static Color paletteColor(byte index) {
+        return index == 0 ? null : COLORS[index - 1];
+    }
+}
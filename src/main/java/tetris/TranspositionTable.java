@@ -0,0 +1,85 @@
+package tetris;
+
+import java.util.Arrays;
+
+// 探索で求めた評価値を、盤面のハッシュと残りのミノから作った鍵で覚えておく表
+// 大きさは作るときに決めたまま（古いものから置き換わる）。複数の探索スレッドで共有できる
+//
+// 2 つ 1 組のスロットに入れる：1 つ目は深く読んだ結果を優先して残し、2 つ目は常に上書きする
+// （1 つ目も前の手番の世代なら置き換える）
+// ロックは使わず、鍵に値を XOR して書く。別のスレッドの書きかけを読んでも鍵が合わないので外れになるだけ
+public final class TranspositionTable {
+
+    public static final int DEFAULT_BITS = 16;
+
+    private static final int MIN_BITS = 4;
+    private static final int MAX_BITS = 26;
+
+    private final long[] keys;
+    private final long[] values;
+    // 世代 << 8 | 残りの深さ（置き換えの判定にだけ使う）
+    private final int[] meta;
+    private final int mask;
+    private volatile int generation;
+
+    // 2^bits 件まで覚える
+    public TranspositionTable(int bits) {
+        if (bits < MIN_BITS || bits > MAX_BITS) {
+            throw new IllegalArgumentException("bits は " + MIN_BITS + "～" + MAX_BITS + ": " + bits);
+        }
+        int size = 1 << bits;
+        this.keys = new long[size];
+        this.values = new long[size];
+        this.meta = new int[size];
+        this.mask = (size >>> 1) - 1;
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_BITS);
+    }
+
+    // 新しい手番を探索し始める（前の手番の結果は置き換えやすくなる）
+    public void newSearch() {
+        generation = (generation + 1) & 0xFFFFFF;
+    }
+
+    // 覚えている評価値（なければ NaN）
+    public double probe(long key) {
+        key = nonZero(key);
+        int i = index(key);
+        for (int j = i; j < i + 2; j++) {
+            long v = values[j];
+            if ((keys[j] ^ v) == key) return Double.longBitsToDouble(v);
+        }
+        return Double.NaN;
+    }
+
+    // depth = その値を出すのに読んだ残りのミノの数
+    public void store(long key, int depth, double value) {
+        key = nonZero(key);
+        int i = index(key);
+        int m = meta[i];
+        int gen = generation;
+        boolean keep = (keys[i] ^ values[i]) != key && (m >>> 8) == gen && (m & 0xFF) > depth;
+        int j = keep ? i + 1 : i;
+        long v = Double.doubleToRawLongBits(value);
+        values[j] = v;
+        keys[j] = key ^ v;
+        meta[j] = gen << 8 | Math.min(depth, 0xFF);
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, 0L);
+        Arrays.fill(meta, 0);
+    }
+
+    private int index(long key) {
+        return ((int) (key ^ (key >>> 32)) & mask) << 1;
+    }
+
+    // 空のスロット（鍵 0・値 0）と見分けるため、鍵 0 は使わない
+    private static long nonZero(long key) {
+        return key == 0L ? 1L : key;
+    }
+}
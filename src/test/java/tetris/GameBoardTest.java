@@ -0,0 +1,194 @@
+package tetris;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// GameBoard を素朴な盤面（NaiveBoard）と比べる
+// 幅・高さが 64 を超える盤面では、行・列のビットが語をまたぐところも通る
+class GameBoardTest {
+
+    static final int[][] SIZES = {{10, 20}, {4, 6}, {70, 130}};
+
+    @Test
+    void clearLinesMatchesNaive() {
+        Random rnd = new Random(6);
+        for (int[] size : SIZES) {
+            int cols = size[0];
+            int rows = size[1];
+            for (int round = 0; round < 200; round++) {
+                int top = rnd.nextInt(rows + 1);
+                byte[] cells = NaiveBoard.randomCells(rnd, cols, rows, top, 0.7, 0.3);
+                GameBoard board = new GameBoard(cols, rows);
+                board.loadCells(top, cells);
+                NaiveBoard naive = new NaiveBoard(cols, rows);
+                naive.load(top, cells);
+
+                int[] expected = naive.clearLines();
+                assertEquals(expected.length, board.clearLines());
+                int[] actual = new int[board.getClearedCount()];
+                for (int i = 0; i < actual.length; i++) {
+                    actual[i] = board.getClearedRow(i);
+                }
+                assertArrayEquals(expected, actual);
+                naive.assertMatches(board);
+            }
+        }
+    }
+
+    @Test
+    void clearLinesWithoutFullRowsKeepsBoard() {
+        Random rnd = new Random(60);
+        byte[] cells = NaiveBoard.randomCells(rnd, GameBoard.COLS, GameBoard.ROWS, 5, 0.9, 0.0);
+        for (int r = 0; r < GameBoard.ROWS - 5; r++) {
+            // どの行も 1 マスは空ける
+            cells[r * GameBoard.COLS + r % GameBoard.COLS] = 0;
+        }
+        GameBoard board = new GameBoard();
+        board.loadCells(5, cells);
+        NaiveBoard before = NaiveBoard.of(board);
+        assertEquals(0, board.clearLines());
+        assertEquals(0, board.getClearedCount());
+        before.assertMatches(board);
+    }
+
+    @Test
+    void aggregatesFollowPlacementsAndClears() {
+        Random rnd = new Random(7);
+        for (int[] size : SIZES) {
+            int cols = size[0];
+            int rows = size[1];
+            GameBoard board = new GameBoard(cols, rows);
+            NaiveBoard naive = new NaiveBoard(cols, rows);
+            for (int i = 0; i < 3000; i++) {
+                int type = rnd.nextInt(Tetromino.COUNT);
+                int rot = rnd.nextInt(Tetromino.ROTATIONS);
+                int x = rnd.nextInt(cols - Tetromino.width(type, rot) + 1);
+                if (!naive.fits(type, rot, x, 0)) {
+                    // 積み上がったら空からやり直す
+                    board.clear();
+                    naive = new NaiveBoard(cols, rows);
+                    continue;
+                }
+                // 途中の高さで止めて張り出し・穴も作り、ときどき穴の中にも直接置く
+                int y = naive.dropDistance(type, rot, x, 0);
+                int pick = rnd.nextInt(8);
+                if (pick < 2) {
+                    y = rnd.nextInt(y + 1);
+                } else if (pick == 2) {
+                    int deep = rnd.nextInt(rows - Tetromino.height(type, rot) + 1);
+                    if (naive.fits(type, rot, x, deep)) y = deep;
+                }
+                if (rnd.nextBoolean()) {
+                    board.placePiece(type, rot, x, y);
+                } else if (rot == 0) {
+                    board.placeBlock(x, y, Tetromino.SHAPES[type], Tetromino.COLORS[type]);
+                } else {
+                    continue;
+                }
+                naive.place(type, rot, x, y);
+                naive.assertMatches(board);
+
+                assertEquals(naive.clearLines().length, board.clearLines());
+                naive.assertMatches(board);
+            }
+        }
+    }
+
+    @Test
+    void canPlaceAndDropDistanceMatchNaive() {
+        Random rnd = new Random(8);
+        for (int[] size : SIZES) {
+            int cols = size[0];
+            int rows = size[1];
+            for (int round = 0; round < 20; round++) {
+                int top = rnd.nextInt(rows + 1);
+                byte[] cells = NaiveBoard.randomCells(rnd, cols, rows, top, 0.4, 0.0);
+                GameBoard board = new GameBoard(cols, rows);
+                board.loadCells(top, cells);
+                NaiveBoard naive = new NaiveBoard(cols, rows);
+                naive.load(top, cells);
+
+                for (int type = 0; type < Tetromino.COUNT; type++) {
+                    for (int rot = 0; rot < Tetromino.ROTATIONS; rot++) {
+                        int[] masks = Tetromino.masks(type, rot);
+                        int height = Tetromino.height(type, rot);
+                        int width = Tetromino.width(type, rot);
+                        for (int x = -2; x <= cols; x++) {
+                            // 大きい盤面は y を間引く
+                            for (int y = -2; y <= rows; y += rows > 64 ? 1 + rnd.nextInt(8) : 1) {
+                                boolean fits = naive.fits(type, rot, x, y);
+                                assertEquals(fits, board.canPlace(masks, height, width, x, y),
+                                        "canPlace " + type + "/" + rot + " (" + x + ", " + y + ")");
+                                if (fits) {
+                                    assertEquals(naive.dropDistance(type, rot, x, y), board.dropDistance(type, rot, x, y),
+                                            "dropDistance " + type + "/" + rot + " (" + x + ", " + y + ")");
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // 置く・消すたびに差分で更新したハッシュが、同じマスを空の盤面から埋め直したものと同じか
+    @Test
+    void incrementalHashMatchesRebuiltBoard() {
+        Random rnd = new Random(22);
+        for (int[] size : SIZES) {
+            int cols = size[0];
+            int rows = size[1];
+            GameBoard board = new GameBoard(cols, rows);
+            NaiveBoard naive = new NaiveBoard(cols, rows);
+            assertEquals(naive.toBoard().getHash(), board.getHash());
+            for (int i = 0; i < 2000; i++) {
+                if (i % 50 == 0) {
+                    // 揃った行の多い盤面から始めて、行が動くときの鍵の付け替えも通す
+                    int top = rnd.nextInt(rows + 1);
+                    byte[] cells = NaiveBoard.randomCells(rnd, cols, rows, top, 0.6, 0.3);
+                    board.loadCells(top, cells);
+                    naive = new NaiveBoard(cols, rows);
+                    naive.load(top, cells);
+                }
+                int type = rnd.nextInt(Tetromino.COUNT);
+                int rot = rnd.nextInt(Tetromino.ROTATIONS);
+                int x = rnd.nextInt(cols - Tetromino.width(type, rot) + 1);
+                if (naive.fits(type, rot, x, 0)) {
+                    int y = naive.dropDistance(type, rot, x, 0);
+                    board.placePiece(type, rot, x, y);
+                    naive.place(type, rot, x, y);
+                    assertEquals(naive.toBoard().getHash(), board.getHash());
+                }
+                board.clearLines();
+                naive.clearLines();
+                assertEquals(naive.toBoard().getHash(), board.getHash());
+            }
+        }
+    }
+
+    @Test
+    void hashSeparatesBoardsAndFollowsCopies() {
+        Random rnd = new Random(220);
+        GameBoard a = new GameBoard();
+        GameBoard b = new GameBoard();
+        a.loadCells(10, NaiveBoard.randomCells(rnd, GameBoard.COLS, GameBoard.ROWS, 10, 0.5, 0.0));
+        b.copyFrom(a);
+        assertEquals(a.getHash(), b.getHash());
+
+        // 1 マスだけ違えば別の値、色だけ違っても同じ値
+        NaiveBoard naive = NaiveBoard.of(a);
+        naive.cells[GameBoard.ROWS - 1][0] = (byte) (naive.cells[GameBoard.ROWS - 1][0] == 0 ? 1 : 0);
+        assertNotEquals(a.getHash(), naive.toBoard().getHash());
+        naive = NaiveBoard.of(a);
+        for (byte[] row : naive.cells) {
+            for (int x = 0; x < row.length; x++) {
+                if (row[x] != 0) row[x] = (byte) (row[x] % Tetromino.COUNT + 1);
+            }
+        }
+        assertEquals(a.getHash(), naive.toBoard().getHash());
+    }
+}
@@ -0,0 +1,154 @@
+package tetris;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// MoveGenerator を、HashMap と ArrayDeque で書いた素朴な幅優先探索と比べる
+class MoveGeneratorTest {
+
+    private static long key(int x, int y, int rot) {
+        return ((long) rot << 40) | ((long) y << 20) | x;
+    }
+
+    // 置き場所（向きをまとめたもの）→ そこまでのいちばん少ない入力の数（ハードドロップを含む）
+    private static Map<Long, Integer> naiveSearch(NaiveBoard board, int type, int rot0, int x0, int y0) {
+        Map<Long, Integer> depth = new HashMap<>();
+        Map<Long, Integer> locks = new HashMap<>();
+        if (!board.fits(type, rot0, x0, y0)) return locks;
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        depth.put(key(x0, y0, rot0), 0);
+        queue.add(new int[] {x0, y0, rot0});
+        while (!queue.isEmpty()) {
+            int[] s = queue.poll();
+            int x = s[0];
+            int y = s[1];
+            int rot = s[2];
+            int d = depth.get(key(x, y, rot));
+            int landY = y + board.dropDistance(type, rot, x, y);
+            locks.merge(key(x, landY, Tetromino.canonicalRotation(type, rot)), d + 1, Math::min);
+
+            int r = (rot + 1) & 3;
+            if (!board.fits(type, r, x, y)) r = (rot + 3) & 3;
+            int[][] next = {{x - 1, y, rot}, {x + 1, y, rot}, {x, y + 1, rot}, {x, y, r}};
+            for (int[] n : next) {
+                if (!board.fits(type, n[2], n[0], n[1])) continue;
+                if (depth.putIfAbsent(key(n[0], n[1], n[2]), d + 1) == null) queue.add(n);
+            }
+        }
+        return locks;
+    }
+
+    // 入力の並びを素朴な盤面の上で動かし、ハードドロップした位置を返す
+    private static int[] replay(NaiveBoard board, int type, int rot, int x, int y, int[] inputs, int n) {
+        for (int i = 0; i < n; i++) {
+            switch (inputs[i]) {
+                case InputController.LEFT:
+                    x--;
+                    break;
+                case InputController.RIGHT:
+                    x++;
+                    break;
+                case InputController.SOFT_DROP:
+                    y++;
+                    break;
+                case InputController.ROTATE:
+                    int r = (rot + 1) & 3;
+                    rot = board.fits(type, r, x, y) ? r : (rot + 3) & 3;
+                    break;
+                default:
+                    assertEquals(n - 1, i, "ハードドロップは最後だけ");
+                    y += board.dropDistance(type, rot, x, y);
+                    break;
+            }
+            assertTrue(board.fits(type, rot, x, y), "入力 " + i + " のあとで重なっている");
+        }
+        return new int[] {x, y, rot};
+    }
+
+    @Test
+    void matchesNaiveSearch() {
+        Random rnd = new Random(23);
+        for (int[] size : GameBoardTest.SIZES) {
+            int cols = size[0];
+            int rows = size[1];
+            MoveGenerator moves = new MoveGenerator(cols, rows);
+            int[] inputs = new int[4 * cols * rows + 1];
+            int rounds = rows > 64 ? 5 : 100;
+            for (int round = 0; round < rounds; round++) {
+                // 張り出しの多い盤面（上のほうはまばらにして、下へ潜り込める道を残す）
+                int top = rows / 2 + rnd.nextInt(rows / 2 + 1);
+                byte[] cells = NaiveBoard.randomCells(rnd, cols, rows, top, 0.45, 0.0);
+                GameBoard board = new GameBoard(cols, rows);
+                board.loadCells(top, cells);
+                NaiveBoard naive = NaiveBoard.of(board);
+
+                for (int type = 0; type < Tetromino.COUNT; type++) {
+                    int x0 = (cols - Tetromino.width(type, 0)) / 2;
+                    Map<Long, Integer> expected = naiveSearch(naive, type, 0, x0, 0);
+                    int count = moves.search(board, type, 0, x0, 0);
+                    assertEquals(expected.size(), count, "置き場所の数");
+
+                    int prev = 0;
+                    for (int i = 0; i < count; i++) {
+                        int lock = moves.lock(i);
+                        int x = MoveGenerator.xOf(lock);
+                        int y = MoveGenerator.yOf(lock);
+                        int rot = MoveGenerator.rotationOf(lock);
+                        Integer best = expected.get(key(x, y, Tetromino.canonicalRotation(type, rot)));
+                        assertEquals(best, moves.inputCount(i), "(" + x + ", " + y + ", " + rot + ") までの入力の数");
+                        assertTrue(prev <= moves.inputCount(i), "入力の少ない順");
+                        prev = moves.inputCount(i);
+
+                        int n = moves.inputs(i, inputs);
+                        assertEquals(moves.inputCount(i), n);
+                        int[] end = replay(naive, type, 0, x0, 0, inputs, n);
+                        assertEquals(x, end[0]);
+                        assertEquals(y, end[1]);
+                        assertEquals(rot, end[2]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void blockedSpawnHasNoPlacements() {
+        GameBoard board = new GameBoard();
+        byte[] full = new byte[GameBoard.ROWS * GameBoard.COLS];
+        for (int i = 0; i < full.length; i++) {
+            full[i] = (byte) (i % GameBoard.COLS == 0 ? 0 : 1);
+        }
+        board.loadCells(0, full);
+        assertEquals(0, new MoveGenerator(board).search(board, 0, 0, 3, 0));
+    }
+
+    @Test
+    void packRoundTripsWithSignBit() {
+        int max = GameBoard.MAX_SIZE;
+        for (int rot = 0; rot < Tetromino.ROTATIONS; rot++) {
+            for (int v : new int[] {0, 1, 12345, max}) {
+                int packed = MoveGenerator.pack(v, max - v, rot);
+                assertEquals(v, MoveGenerator.xOf(packed));
+                assertEquals(max - v, MoveGenerator.yOf(packed));
+                assertEquals(rot, MoveGenerator.rotationOf(packed));
+            }
+        }
+    }
+
+    @Test
+    void rejectsBoardsTooLargeToSearch() {
+        assertTrue(MoveGenerator.supports(GameBoard.COLS, GameBoard.ROWS));
+        assertFalse(MoveGenerator.supports(GameBoard.MAX_SIZE, GameBoard.MAX_SIZE));
+        assertFalse(MoveGenerator.supports(1024, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new MoveGenerator(GameBoard.MAX_SIZE, GameBoard.MAX_SIZE));
+        assertThrows(IllegalArgumentException.class, () -> new MoveGenerator(10, 20).search(new GameBoard(12, 20), 0, 0, 3, 0));
+    }
+}
@@ -0,0 +1,155 @@
+package tetris;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// テスト用の素朴な盤面（マスの色を 2 次元配列に持つだけ）
+// GameBoard の差分更新・ビット演算の結果を、毎回数え直した値と比べるために使う
+final class NaiveBoard {
+
+    final int cols;
+    final int rows;
+    final byte[][] cells;
+
+    NaiveBoard(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.cells = new byte[rows][cols];
+    }
+
+    static NaiveBoard of(GameBoard board) {
+        NaiveBoard naive = new NaiveBoard(board.getCols(), board.getRows());
+        for (int y = 0; y < naive.rows; y++) {
+            System.arraycopy(board.colors, y * naive.cols, naive.cells[y], 0, naive.cols);
+        }
+        return naive;
+    }
+
+    // 行 top から下をおよそ density の割合で埋め、full の割合で行をすべて埋めた盤面（GameBoard.loadCells の形式）
+    static byte[] randomCells(Random rnd, int cols, int rows, int top, double density, double full) {
+        byte[] cells = new byte[(rows - top) * cols];
+        for (int r = 0; r < rows - top; r++) {
+            boolean all = rnd.nextDouble() < full;
+            for (int x = 0; x < cols; x++) {
+                if (all || rnd.nextDouble() < density) cells[r * cols + x] = (byte) (1 + rnd.nextInt(Tetromino.COUNT));
+            }
+        }
+        return cells;
+    }
+
+    void load(int top, byte[] data) {
+        for (int i = 0; i < data.length; i++) {
+            cells[top + i / cols][i % cols] = data[i];
+        }
+    }
+
+    boolean occupied(int x, int y) {
+        if (x < 0 || x >= cols || y >= rows) return true;
+        return y >= 0 && cells[y][x] != 0;
+    }
+
+    boolean fits(int type, int rotation, int baseX, int baseY) {
+        for (int i = 0; i < Tetromino.CELLS; i++) {
+            if (occupied(baseX + Tetromino.cellX(type, rotation, i), baseY + Tetromino.cellY(type, rotation, i))) return false;
+        }
+        return true;
+    }
+
+    // 1 段ずつ下げて調べた落下距離
+    int dropDistance(int type, int rotation, int baseX, int baseY) {
+        int d = 0;
+        while (fits(type, rotation, baseX, baseY + d + 1)) {
+            d++;
+        }
+        return d;
+    }
+
+    void place(int type, int rotation, int baseX, int baseY) {
+        for (int i = 0; i < Tetromino.CELLS; i++) {
+            int x = baseX + Tetromino.cellX(type, rotation, i);
+            int y = baseY + Tetromino.cellY(type, rotation, i);
+            if (y >= 0 && y < rows && x >= 0 && x < cols) cells[y][x] = (byte) (type + 1);
+        }
+    }
+
+    // 揃った行を消して上を詰め、消えた行（消える前の行番号、下から順）を返す
+    int[] clearLines() {
+        int[] cleared = new int[rows];
+        int n = 0;
+        for (int y = rows - 1; y >= 0; y--) {
+            if (rowFill(y) == cols) cleared[n++] = y;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            // 上の行から抜けば、下の消える行の番号は変わらない
+            for (int y = cleared[i]; y > 0; y--) {
+                cells[y] = cells[y - 1];
+            }
+            cells[0] = new byte[cols];
+        }
+        return Arrays.copyOf(cleared, n);
+    }
+
+    int rowFill(int y) {
+        int n = 0;
+        for (byte c : cells[y]) {
+            if (c != 0) n++;
+        }
+        return n;
+    }
+
+    int height(int x) {
+        for (int y = 0; y < rows; y++) {
+            if (cells[y][x] != 0) return rows - y;
+        }
+        return 0;
+    }
+
+    int holes(int x) {
+        int n = 0;
+        for (int y = rows - height(x); y < rows; y++) {
+            if (cells[y][x] == 0) n++;
+        }
+        return n;
+    }
+
+    int holes() {
+        int n = 0;
+        for (int x = 0; x < cols; x++) {
+            n += holes(x);
+        }
+        return n;
+    }
+
+    // マスの色と、差分で持っている集計がすべて数え直した値と同じか
+    void assertMatches(GameBoard board) {
+        assertEquals(cols, board.getCols());
+        assertEquals(rows, board.getRows());
+        for (int y = 0; y < rows; y++) {
+            byte[] row = new byte[cols];
+            System.arraycopy(board.colors, y * cols, row, 0, cols);
+            assertArrayEquals(cells[y], row, "行 " + y + " の色");
+            for (int x = 0; x < cols; x++) {
+                assertEquals(cells[y][x] != 0, board.isOccupied(x, y), "(" + x + ", " + y + ") の埋まり");
+            }
+            assertEquals(rowFill(y), board.getRowFill(y), "行 " + y + " の埋まり数");
+        }
+        for (int x = 0; x < cols; x++) {
+            assertEquals(height(x), board.getColumnHeight(x), "列 " + x + " の高さ");
+        }
+        assertEquals(holes(), board.getHoles(), "穴の数");
+    }
+
+    // 同じマスを埋めた盤面を GameBoard で作り直す（差分でないハッシュ・集計と比べるため）
+    GameBoard toBoard() {
+        GameBoard board = new GameBoard(cols, rows);
+        byte[] data = new byte[rows * cols];
+        for (int y = 0; y < rows; y++) {
+            System.arraycopy(cells[y], 0, data, y * cols, cols);
+        }
+        board.loadCells(0, data);
+        return board;
+    }
+}
@@ -0,0 +1,105 @@
+package tetris;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PieceGeneratorTest {
+
+    private static int[] draw(PieceGenerator gen, int n) {
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = gen.next();
+        }
+        return out;
+    }
+
+    @Test
+    void fixedSequenceStartsAtSeedAndRepeats() {
+        int[] sequence = {3, 1, 4, 1, 5};
+        PieceGenerator gen = new FixedSequenceGenerator(sequence, 7L, 3);
+        // シード 7 → 7 mod 5 = 2 番目から
+        assertEquals(4, gen.peek(0));
+        assertEquals(1, gen.peek(1));
+        assertEquals(5, gen.peek(2));
+        assertArrayEquals(new int[] {4, 1, 5, 3, 1, 4, 1, 5, 3, 1}, draw(gen, 10));
+
+        gen.reseed(0L);
+        assertArrayEquals(new int[] {3, 1, 4, 1, 5, 3}, draw(gen, 6));
+    }
+
+    @Test
+    void fixedSequenceRejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> new FixedSequenceGenerator(new int[0], 0L, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FixedSequenceGenerator(new int[] {Tetromino.COUNT}, 0L, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FixedSequenceGenerator(new int[] {0}, 0L, 0));
+    }
+
+    // 保存した状態から、先読みキューの途中でも同じ続きが出る
+    @Test
+    void stateRoundTripsForEveryGenerator() {
+        PieceGenerator[] gens = {
+            new FixedSequenceGenerator(new int[] {0, 6, 2, 2, 5}, 3L, GameEngine.PREVIEW_DEPTH),
+            PieceGenerator.create("bag", 9L, GameEngine.PREVIEW_DEPTH),
+            PieceGenerator.create("random", 9L, 1),
+        };
+        PieceGenerator[] fresh = {
+            new FixedSequenceGenerator(new int[] {0, 6, 2, 2, 5}, 0L, GameEngine.PREVIEW_DEPTH),
+            PieceGenerator.create("bag", 0L, GameEngine.PREVIEW_DEPTH),
+            PieceGenerator.create("random", 0L, 1),
+        };
+        for (int g = 0; g < gens.length; g++) {
+            draw(gens[g], 11);
+            long[] state = gens[g].saveState();
+            int[] expected = draw(gens[g], 40);
+            fresh[g].restoreState(state);
+            assertArrayEquals(expected, draw(fresh[g], 40));
+        }
+    }
+
+    @Test
+    void restoreRejectsStateOfAnotherDepthOrPosition() {
+        long[] state = new FixedSequenceGenerator(new int[] {1, 2}, 0L, 3).saveState();
+        assertThrows(IllegalArgumentException.class,
+                () -> new FixedSequenceGenerator(new int[] {1, 2}, 0L, 4).restoreState(state));
+        state[state.length - 1] = 2;
+        assertThrows(IllegalArgumentException.class,
+                () -> new FixedSequenceGenerator(new int[] {1, 2}, 0L, 3).restoreState(state));
+    }
+
+    @Test
+    void bagDealsEveryPieceOncePerBag() {
+        PieceGenerator gen = PieceGenerator.create("bag", 42L, GameEngine.PREVIEW_DEPTH);
+        for (int bag = 0; bag < 100; bag++) {
+            boolean[] seen = new boolean[Tetromino.COUNT];
+            for (int i = 0; i < Tetromino.COUNT; i++) {
+                int type = gen.next();
+                assertFalse(seen[type], "袋 " + bag + " で " + type + " が 2 回出た");
+                seen[type] = true;
+            }
+        }
+    }
+
+    @Test
+    void createKnowsItsNames() {
+        assertTrue(PieceGenerator.isKnown("bag"));
+        assertTrue(PieceGenerator.isKnown("random"));
+        assertTrue(PieceGenerator.isKnown("fixed:IOTSZJL"));
+        assertFalse(PieceGenerator.isKnown("fixed"));
+        assertFalse(PieceGenerator.isKnown("fixed:"));
+        assertFalse(PieceGenerator.isKnown("fixed:TX"));
+        assertThrows(IllegalArgumentException.class, () -> PieceGenerator.create("fixed", 0L, 1));
+        assertThrows(IllegalArgumentException.class, () -> PieceGenerator.create("fixed:tsz", 0L, 1));
+    }
+
+    @Test
+    void createBuildsFixedSequenceFromNames() {
+        PieceGenerator gen = PieceGenerator.create("fixed:TSZL", 1L, GameEngine.PREVIEW_DEPTH);
+        // T=2, S=3, Z=4, L=6、シード 1 なので S から
+        assertArrayEquals(new int[] {3, 4, 6, 2, 3, 4, 6, 2}, draw(gen, 8));
+    }
+}
@@ -0,0 +1,156 @@
+package tetris;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SaveGameTest {
+
+    private static final long SEED = 25L;
+
+    @TempDir
+    Path dir;
+
+    private String home;
+
+    // 既定の場所（~/.tetris_save.bin）を一時ディレクトリに向ける
+    @BeforeEach
+    void setHome() {
+        home = System.getProperty("user.home");
+        System.setProperty("user.home", dir.toString());
+    }
+
+    @AfterEach
+    void restoreHome() {
+        System.setProperty("user.home", home);
+    }
+
+    private static final class Game {
+        final ManualClock clock;
+        final GameEngine engine;
+        final AutoPlayer player = new AutoPlayer(AutoPlayer.Weights.defaults(), 1, null);
+
+        Game(long start, int cols, int rows) {
+            clock = new ManualClock(start);
+            engine = new GameEngine(clock, PieceGenerator.create("bag", SEED, GameEngine.PREVIEW_DEPTH), cols, rows);
+        }
+
+        // 自動プレイを挟みながら固定ステップで進め、盤面・点数・残り時間の並びを返す
+        long[] run(int steps) {
+            long[] trace = new long[steps * 3];
+            for (int i = 0; i < steps; i++) {
+                if (i % 20 == 0 && engine.isRunning()) player.play(engine);
+                engine.step();
+                clock.advance(GameEngine.TICK_MS);
+                trace[i * 3] = engine.getBoard().getHash();
+                trace[i * 3 + 1] = engine.getScore();
+                trace[i * 3 + 2] = engine.getRemainingSeconds();
+            }
+            return trace;
+        }
+    }
+
+    private static Game started(int cols, int rows) {
+        Game game = new Game(1_000L, cols, rows);
+        game.engine.reset();
+        game.engine.begin();
+        game.run(1500);
+        return game;
+    }
+
+    @Test
+    void resumedGameContinuesTheSame() throws IOException {
+        for (int[] size : new int[][] {{10, 20}, {70, 130}}) {
+            Game game = started(size[0], size[1]);
+            Path path = dir.resolve("save.bin");
+            SaveGame.write(path, game.engine, "bag", SEED);
+
+            SaveGame save = SaveGame.read(path);
+            assertEquals("bag", save.generator);
+            assertEquals(SEED, save.seed);
+            assertEquals(size[0], save.cols);
+            assertEquals(size[1], save.rows);
+
+            // 読み込む側の時計はいくつでもよい
+            Game resumed = new Game(987_654L, save.cols, save.rows);
+            save.apply(resumed.engine);
+            assertEquals(game.engine.getBoard().getHash(), resumed.engine.getBoard().getHash());
+            NaiveBoard.of(game.engine.getBoard()).assertMatches(resumed.engine.getBoard());
+            assertEquals(game.engine.getScore(), resumed.engine.getScore());
+            assertEquals(game.engine.getPiecesPlaced(), resumed.engine.getPiecesPlaced());
+
+            assertTrue(Arrays.equals(game.run(3000), resumed.run(3000)), size[0] + "x" + size[1]);
+        }
+    }
+
+    @Test
+    void truncatedOrFlippedFileIsRejected() throws IOException {
+        Game game = started(GameBoard.COLS, GameBoard.ROWS);
+        Path path = dir.resolve("save.bin");
+        SaveGame.write(path, game.engine, "bag", SEED);
+        byte[] bytes = Files.readAllBytes(path);
+
+        Path broken = dir.resolve("broken.bin");
+        for (int len = 0; len < bytes.length; len++) {
+            Files.write(broken, Arrays.copyOf(bytes, len));
+            assertThrows(IOException.class, () -> SaveGame.read(broken), "長さ " + len);
+        }
+        for (int bit = 0; bit < bytes.length * 8; bit++) {
+            byte[] flipped = bytes.clone();
+            flipped[bit >>> 3] ^= (byte) (1 << (bit & 7));
+            Files.write(broken, flipped);
+            assertThrows(IOException.class, () -> SaveGame.read(broken), "ビット " + bit);
+        }
+        byte[] longer = Arrays.copyOf(bytes, bytes.length + 1);
+        Files.write(broken, longer);
+        assertThrows(IOException.class, () -> SaveGame.read(broken));
+    }
+
+    @Test
+    void takeDefaultKeepsSaveItCannotUse() throws IOException {
+        Game game = started(GameBoard.COLS, GameBoard.ROWS);
+        SaveGame.saveOrDiscard(game.engine, "bag", SEED);
+        Path path = SaveGame.defaultPath();
+        assertTrue(Files.exists(path));
+
+        assertNull(SaveGame.takeDefault("random", null));
+        assertTrue(Files.exists(path), "ミノの出し方が違うセーブは残す");
+        assertNull(SaveGame.takeDefault("bag", new int[] {12, 24}));
+        assertTrue(Files.exists(path), "大きさが違うセーブは残す");
+
+        assertNotNull(SaveGame.takeDefault("bag", new int[] {GameBoard.COLS, GameBoard.ROWS}));
+        assertTrue(Files.notExists(path), "使ったセーブは消す");
+        assertNull(SaveGame.takeDefault("bag", null));
+    }
+
+    @Test
+    void brokenDefaultSaveIsDeleted() throws IOException {
+        Path path = SaveGame.defaultPath();
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        assertNull(SaveGame.takeDefault("bag", null));
+        assertTrue(Files.notExists(path));
+    }
+
+    @Test
+    void finishedGameDiscardsSave() throws IOException {
+        Game game = started(GameBoard.COLS, GameBoard.ROWS);
+        SaveGame.saveOrDiscard(game.engine, "bag", SEED);
+        assertTrue(Files.exists(SaveGame.defaultPath()));
+
+        Game idle = new Game(0L, GameBoard.COLS, GameBoard.ROWS);
+        idle.engine.reset();
+        SaveGame.saveOrDiscard(idle.engine, "bag", SEED);
+        assertTrue(Files.notExists(SaveGame.defaultPath()));
+    }
+}
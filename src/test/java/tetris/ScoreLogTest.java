@@ -0,0 +1,177 @@
+package tetris;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScoreLogTest {
+
+    // レコードの中の位置（先頭の長さの int から数える）
+    private static final int MODE_OFFSET = 4 + 8 + 4 + 4 + 4 + 4;
+    private static final int NAME_LENGTH_OFFSET = MODE_OFFSET + 1;
+    private static final int NAME_OFFSET = NAME_LENGTH_OFFSET + 2;
+
+    @TempDir
+    Path dir;
+
+    private static ScoreRecord[] records() {
+        return new ScoreRecord[] {
+            new ScoreRecord("alice", 1_000L, 1200, 12, 2, 180_000, GameMode.SPRINT_180),
+            new ScoreRecord("ぼぶ", 2_000L, 0, 0, 1, 5_000, GameMode.MARATHON),
+            new ScoreRecord("", 3_000L, Integer.MAX_VALUE, 999, 30, Integer.MAX_VALUE, GameMode.SPRINT_180),
+            new ScoreRecord("carol", -1L, 42, 1, 1, 0, GameMode.MARATHON),
+        };
+    }
+
+    private static List<ScoreRecord> readAll(Path path) throws IOException {
+        List<ScoreRecord> out = new ArrayList<>();
+        try (ScoreLog log = ScoreLog.open(path, "legacy")) {
+            log.forEach(out::add);
+        }
+        return out;
+    }
+
+    private static void assertSameRecords(List<ScoreRecord> expected, List<ScoreRecord> actual) {
+        assertEquals(expected.size(), actual.size(), "件数");
+        for (int i = 0; i < expected.size(); i++) {
+            ScoreRecord e = expected.get(i);
+            ScoreRecord a = actual.get(i);
+            assertEquals(e.getPlayer(), a.getPlayer());
+            assertEquals(e.getTimestamp(), a.getTimestamp());
+            assertEquals(e.getScore(), a.getScore());
+            assertEquals(e.getLines(), a.getLines());
+            assertEquals(e.getLevel(), a.getLevel());
+            assertEquals(e.getDurationMs(), a.getDurationMs());
+            assertEquals(e.getMode(), a.getMode());
+        }
+    }
+
+    private Path writeRecords() throws IOException {
+        Path path = dir.resolve("scores.bin");
+        ScoreRecord[] all = records();
+        try (ScoreLog log = ScoreLog.open(path, "legacy")) {
+            log.append(all, 2);
+            log.append(Arrays.copyOfRange(all, 2, all.length), all.length - 2);
+        }
+        return path;
+    }
+
+    // i 番目のレコードの先頭の位置
+    private static long recordStart(int i) {
+        long pos = ScoreLog.HEADER_SIZE;
+        ScoreRecord[] all = records();
+        for (int k = 0; k < i; k++) {
+            pos += NAME_OFFSET + all[k].getPlayer().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return pos;
+    }
+
+    private static void overwrite(Path path, long pos, ByteBuffer data) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(data, pos);
+        }
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        Path path = writeRecords();
+        assertSameRecords(Arrays.asList(records()), readAll(path));
+    }
+
+    @Test
+    void longNameIsCutAtCharacterBoundary() throws IOException {
+        Path path = dir.resolve("scores.bin");
+        String name = "あ".repeat(100); // 300 バイト
+        try (ScoreLog log = ScoreLog.open(path, "legacy")) {
+            log.append(new ScoreRecord[] {new ScoreRecord(name, 0L, 1, 0, 1, 0, GameMode.SPRINT_180)}, 1);
+        }
+        assertEquals("あ".repeat(85), readAll(path).get(0).getPlayer());
+    }
+
+    // どこで切れても、切れ目より前のレコードは読めて、次の追記はその後ろに続く
+    @Test
+    void truncatedFileKeepsWholeRecords() throws IOException {
+        Path full = writeRecords();
+        byte[] bytes = Files.readAllBytes(full);
+        ScoreRecord[] all = records();
+        ScoreRecord extra = new ScoreRecord("dave", 9_000L, 7, 0, 1, 0, GameMode.MARATHON);
+        for (int len = 0; len < bytes.length; len++) {
+            Path path = dir.resolve("cut" + len + ".bin");
+            Files.write(path, Arrays.copyOf(bytes, len));
+            int whole = 0;
+            while (whole < all.length && len >= ScoreLog.HEADER_SIZE && recordStart(whole + 1) <= len) {
+                whole++;
+            }
+            List<ScoreRecord> expected = new ArrayList<>(Arrays.asList(all).subList(0, whole));
+            assertSameRecords(expected, readAll(path));
+
+            try (ScoreLog log = ScoreLog.open(path, "legacy")) {
+                log.forEach(r -> { });
+                log.append(new ScoreRecord[] {extra}, 1);
+            }
+            expected.add(extra);
+            assertSameRecords(expected, readAll(path));
+        }
+    }
+
+    @Test
+    void brokenModeStopsAtLastGoodRecord() throws IOException {
+        Path path = writeRecords();
+        overwrite(path, recordStart(2) + MODE_OFFSET, ByteBuffer.wrap(new byte[] {(byte) 200}));
+        assertSameRecords(Arrays.asList(records()).subList(0, 2), readAll(path));
+    }
+
+    @Test
+    void negativeNameLengthStopsAtLastGoodRecord() throws IOException {
+        Path path = writeRecords();
+        overwrite(path, recordStart(1) + NAME_LENGTH_OFFSET, ByteBuffer.allocate(2).putShort(0, (short) -5));
+        assertSameRecords(Arrays.asList(records()).subList(0, 1), readAll(path));
+    }
+
+    @Test
+    void brokenLengthStopsAtLastGoodRecord() throws IOException {
+        Path path = writeRecords();
+        overwrite(path, recordStart(3), ByteBuffer.allocate(4).putInt(0, -1));
+        assertSameRecords(Arrays.asList(records()).subList(0, 3), readAll(path));
+    }
+
+    @Test
+    void appendAfterBrokenRecordReplacesIt() throws IOException {
+        Path path = writeRecords();
+        overwrite(path, recordStart(1) + MODE_OFFSET, ByteBuffer.wrap(new byte[] {(byte) 99}));
+        ScoreRecord extra = new ScoreRecord("erin", 10_000L, 5, 0, 1, 0, GameMode.SPRINT_180);
+        try (ScoreLog log = ScoreLog.open(path, "legacy")) {
+            log.forEach(r -> { });
+            log.append(new ScoreRecord[] {extra}, 1);
+        }
+        assertSameRecords(List.of(records()[0], extra), readAll(path));
+    }
+
+    // ヘッダの確定済みの長さが負なら空として扱い、追記はヘッダの後ろから書く
+    @Test
+    void negativeCommittedLengthIsTreatedAsEmpty() throws IOException {
+        Path path = writeRecords();
+        overwrite(path, 8, ByteBuffer.allocate(8).putLong(0, -100L));
+        assertSameRecords(List.of(), readAll(path));
+
+        ScoreRecord extra = new ScoreRecord("frank", 11_000L, 3, 0, 1, 0, GameMode.MARATHON);
+        try (ScoreLog log = ScoreLog.open(path, "legacy")) {
+            log.append(new ScoreRecord[] {extra}, 1);
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        assertEquals(ScoreLog.MAGIC, ByteBuffer.wrap(bytes).getInt(0));
+        assertEquals(ScoreLog.VERSION, ByteBuffer.wrap(bytes).getInt(4));
+        assertSameRecords(List.of(extra), readAll(path));
+    }
+}
@@ -0,0 +1,172 @@
+package tetris;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// push / pop と snapshot / restore を、copyFrom で写しておいた盤面と比べる
+class UndoTest {
+
+    private static final int MAX_DEPTH = 8;
+
+    // 下半分の各行に 1～2 マスだけ空きのある盤面（置くと行が消えやすい）
+    private static GameBoard nearlyFull(Random rnd, int cols, int rows) {
+        int top = rows / 2;
+        byte[] cells = new byte[(rows - top) * cols];
+        for (int r = 0; r < rows - top; r++) {
+            for (int x = 0; x < cols; x++) {
+                cells[r * cols + x] = (byte) (1 + rnd.nextInt(Tetromino.COUNT));
+            }
+            cells[r * cols + rnd.nextInt(cols)] = 0;
+            if (rnd.nextBoolean()) cells[r * cols + rnd.nextInt(cols)] = 0;
+        }
+        GameBoard board = new GameBoard(cols, rows);
+        board.loadCells(top, cells);
+        return board;
+    }
+
+    private static void assertSameBoard(GameBoard expected, GameBoard actual) {
+        NaiveBoard.of(expected).assertMatches(actual);
+        assertEquals(expected.getHash(), actual.getHash(), "ハッシュ");
+        assertEquals(expected.getTopRow(), actual.getTopRow(), "いちばん上の行");
+    }
+
+    // 置ける手を 1 つ選ぶ（空いている列に縦の I を落とす手を多めにして、行を消す）
+    private static int[] randomMove(Random rnd, GameBoard board) {
+        NaiveBoard naive = NaiveBoard.of(board);
+        for (int tries = 0; tries < 20; tries++) {
+            int type = rnd.nextInt(3) == 0 ? 0 : rnd.nextInt(Tetromino.COUNT);
+            int rot = type == 0 && rnd.nextBoolean() ? 1 : rnd.nextInt(Tetromino.ROTATIONS);
+            int x = rnd.nextInt(board.getCols() - Tetromino.width(type, rot) + 1);
+            if (naive.fits(type, rot, x, 0)) return new int[] {type, rot, x, naive.dropDistance(type, rot, x, 0)};
+        }
+        return null;
+    }
+
+    @Test
+    void popRestoresEveryPush() {
+        Random rnd = new Random(24);
+        for (int[] size : GameBoardTest.SIZES) {
+            int cols = size[0];
+            int rows = size[1];
+            GameBoard board = nearlyFull(rnd, cols, rows);
+            GameBoard[] copies = new GameBoard[MAX_DEPTH];
+            for (int i = 0; i < MAX_DEPTH; i++) {
+                copies[i] = new GameBoard(cols, rows);
+            }
+            int depth = 0;
+            int cleared = 0;
+            for (int step = 0; step < 3000; step++) {
+                int[] move = depth < MAX_DEPTH && rnd.nextInt(5) < 3 ? randomMove(rnd, board) : null;
+                if (move != null) {
+                    copies[depth].copyFrom(board);
+                    GameBoard expected = new GameBoard(cols, rows);
+                    expected.copyFrom(board);
+                    expected.placePiece(move[0], move[1], move[2], move[3]);
+                    int lines = expected.clearLines();
+
+                    assertEquals(lines, board.push(move[0], move[1], move[2], move[3]));
+                    cleared += lines;
+                    depth++;
+                    assertEquals(depth, board.getUndoDepth());
+                    assertSameBoard(expected, board);
+                } else if (depth > 0) {
+                    board.pop();
+                    depth--;
+                    assertEquals(depth, board.getUndoDepth());
+                    assertSameBoard(copies[depth], board);
+                } else {
+                    board = nearlyFull(rnd, cols, rows);
+                }
+            }
+            assertTrue(cleared > 0, cols + "x" + rows + " で行が消えていない");
+        }
+    }
+
+    @Test
+    void restoreReturnsToEachSnapshot() {
+        Random rnd = new Random(240);
+        for (int[] size : GameBoardTest.SIZES) {
+            int cols = size[0];
+            int rows = size[1];
+            GameBoard board = nearlyFull(rnd, cols, rows);
+            GameBoard.Snapshot[] snaps = new GameBoard.Snapshot[6];
+            GameBoard[] copies = new GameBoard[snaps.length];
+            for (int round = 0; round < 300; round++) {
+                int i = rnd.nextInt(snaps.length);
+                if (snaps[i] == null || rnd.nextBoolean()) {
+                    snaps[i] = board.snapshot();
+                    copies[i] = new GameBoard(cols, rows);
+                    copies[i].copyFrom(board);
+                } else {
+                    board.restore(snaps[i]);
+                    assertEquals(0, board.getUndoDepth());
+                    assertSameBoard(copies[i], board);
+                }
+                // 置く・push する・空にするを混ぜて、変わった行と変わらない行を作る
+                for (int k = rnd.nextInt(4); k > 0; k--) {
+                    int[] move = randomMove(rnd, board);
+                    if (move == null) {
+                        board.clear();
+                    } else if (rnd.nextBoolean()) {
+                        board.push(move[0], move[1], move[2], move[3]);
+                    } else {
+                        board.placePiece(move[0], move[1], move[2], move[3]);
+                        board.clearLines();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void generatorStateContinuesTheSameSequence() {
+        for (String kind : new String[] {"bag", "random"}) {
+            PieceGenerator gen = PieceGenerator.create(kind, 24L, GameEngine.PREVIEW_DEPTH);
+            for (int i = 0; i < 10; i++) {
+                gen.next();
+            }
+            long[] state = gen.saveState();
+            int[] expected = new int[50];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = gen.next();
+            }
+
+            PieceGenerator other = PieceGenerator.create(kind, 99L, GameEngine.PREVIEW_DEPTH);
+            other.restoreState(state);
+            int[] actual = new int[expected.length];
+            for (int i = 0; i < actual.length; i++) {
+                actual[i] = other.next();
+            }
+            assertArrayEquals(expected, actual, kind);
+        }
+    }
+
+    @Test
+    void engineRestoreReplaysTheSameGame() {
+        GameEngine engine = new GameEngine(new ManualClock(), PieceGenerator.create("bag", 2024L, GameEngine.PREVIEW_DEPTH));
+        AutoPlayer player = new AutoPlayer(AutoPlayer.Weights.defaults(), 1, null);
+        engine.reset();
+        engine.begin();
+        for (int i = 0; i < 20; i++) {
+            player.play(engine);
+        }
+        GameEngine.Snapshot snap = engine.snapshot();
+        long[] expected = play(engine, player);
+        engine.restore(snap);
+        assertArrayEquals(expected, play(engine, player));
+    }
+
+    private static long[] play(GameEngine engine, AutoPlayer player) {
+        long[] trace = new long[40];
+        for (int i = 0; i < trace.length; i += 2) {
+            player.play(engine);
+            trace[i] = engine.getBoard().getHash();
+            trace[i + 1] = engine.getScore() * 31L + engine.getCurrentPiece().type;
+        }
+        return trace;
+    }
+}